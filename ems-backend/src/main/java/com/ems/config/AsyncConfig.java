@@ -0,0 +1,74 @@
+package com.ems.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    // Bounded pool for background exports - kept small so exports can't take every
+    // DB connection (hikari pool is 5) away from interactive requests
+    @Bean(name = "exportJobExecutor")
+    public ThreadPoolTaskExecutor exportJobExecutor(
+            @Value("${app.export.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${app.export.jobs.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Background import jobs - each running job also takes two import-stage threads
+    @Bean(name = "importJobExecutor")
+    public ThreadPoolTaskExecutor importJobExecutor(
+            @Value("${app.import.jobs.max-concurrent:2}") int maxConcurrent,
+            @Value("${app.import.jobs.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Worker threads for the parse and validate stages of CSV imports (two per running import)
+    @Bean(name = "importPipelineExecutor")
+    public ThreadPoolTaskExecutor importPipelineExecutor(
+            @Value("${app.import.max-concurrent:4}") int maxConcurrentImports) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(maxConcurrentImports * 2);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("import-stage-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Parallel rendering of notification batches (NotificationRenderer.renderAll) - CPU bound,
+    // so one thread per core; when the queue is full the caller renders the chunk itself
+    @Bean(name = "notificationRenderExecutor")
+    public ThreadPoolTaskExecutor notificationRenderExecutor(
+            @Value("${app.notifications.render.queue-capacity:100}") int queueCapacity) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("notification-render-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ems.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String DEPARTMENTS = "departments";
+    public static final String POSITIONS = "positions";
+    public static final String LEAVE_POLICY = "leavePolicy";
+
+    // Local in-memory caches for small, read-mostly lookups. Entries are evicted explicitly
+    // on writes; the TTL only bounds staleness from writes made outside this application.
+    // The transaction-aware proxy defers evictions until commit, so a concurrent read
+    // cannot re-cache the old value while the write is still in flight.
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.max-size:100}") long maxSize,
+            @Value("${app.cache.ttl-minutes:30}") long ttlMinutes) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(DEPARTMENTS, POSITIONS, LEAVE_POLICY);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            .recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ems.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = {
+    "http://localhost:4200",
+    "https://employee-management-system-7c5q.vercel.app",
+    "https://employee-management-system-jxdj.onrender.com"
+})
+public class AdminController {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // ========== CACHE ==========
+
+    // Hit/miss counters of every local cache since startup
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        Map<String, Object> response = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                CacheStats stats = nativeCache.stats();
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("size", nativeCache.estimatedSize());
+                entry.put("hits", stats.hitCount());
+                entry.put("misses", stats.missCount());
+                entry.put("hitRate", stats.hitRate());
+                entry.put("evictions", stats.evictionCount());
+                response.put(name, entry);
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/cache/{name}")
+    public ResponseEntity<?> clearCache(@PathVariable String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Cache not found: " + name);
+            error.put("success", false);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+        cache.clear();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Cache cleared: " + name);
+        return ResponseEntity.ok(response);
+    }
+}
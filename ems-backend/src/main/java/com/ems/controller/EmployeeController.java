@@ -2,13 +2,23 @@ package com.ems.controller;
 
 import com.ems.entity.Employee;
 import com.ems.service.EmployeeService;
+import com.ems.service.ImportJobService;
 import com.ems.dto.EmployeeDTO;
+import com.ems.dto.ImportJobDTO;
+import com.ems.dto.ImportResultDTO;
+import com.ems.dto.ImportRowErrorDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -24,54 +34,15 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ImportJobService importJobService;
+
     // ========== FIXED: Add missing endpoints for Angular ==========
 
     @GetMapping("/stats/salary")
     public ResponseEntity<?> getSalaryStatistics() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            List<Employee> employees = employeeService.getAllEmployeesForExport();
-            
-            if (!employees.isEmpty()) {
-                double totalSalary = employees.stream()
-                    .filter(e -> e.getSalary() != null)
-                    .mapToDouble(Employee::getSalary)
-                    .sum();
-                double avgSalary = totalSalary / employees.size();
-                double minSalary = employees.stream()
-                    .filter(e -> e.getSalary() != null)
-                    .mapToDouble(Employee::getSalary)
-                    .min()
-                    .orElse(0.0);
-                double maxSalary = employees.stream()
-                    .filter(e -> e.getSalary() != null)
-                    .mapToDouble(Employee::getSalary)
-                    .max()
-                    .orElse(0.0);
-                
-                stats.put("averageSalary", String.format("%.2f", avgSalary));
-                stats.put("minSalary", String.format("%.2f", minSalary));
-                stats.put("maxSalary", String.format("%.2f", maxSalary));
-                stats.put("totalSalary", String.format("%.2f", totalSalary));
-                
-                // Department averages
-                Map<String, Double> deptAverages = new HashMap<>();
-                Map<String, List<Employee>> employeesByDept = employees.stream()
-                    .collect(Collectors.groupingBy(Employee::getDepartment));
-                
-                employeesByDept.forEach((dept, deptEmployees) -> {
-                    double deptAvg = deptEmployees.stream()
-                        .filter(e -> e.getSalary() != null)
-                        .mapToDouble(Employee::getSalary)
-                        .average()
-                        .orElse(0.0);
-                    deptAverages.put(dept, deptAvg);
-                });
-                
-                stats.put("departmentAverages", deptAverages);
-            }
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(employeeService.getSalaryStatistics());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Failed to fetch salary statistics: " + e.getMessage()));
@@ -81,27 +52,26 @@ public class EmployeeController {
     @GetMapping("/stats/department")
     public ResponseEntity<?> getDepartmentStatistics() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            List<Employee> employees = employeeService.getAllEmployeesForExport();
-            
-            List<String> departments = employeeService.getDistinctDepartments();
-            stats.put("totalDepartments", departments.size());
-            
-            Map<String, Long> employeeCountByDepartment = employees.stream()
-                .filter(e -> e.getDepartment() != null)
-                .collect(Collectors.groupingBy(
-                    Employee::getDepartment,
-                    Collectors.counting()
-                ));
-            stats.put("employeeCountByDepartment", employeeCountByDepartment);
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(employeeService.getDepartmentStatistics());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("Failed to fetch department statistics: " + e.getMessage()));
         }
     }
 
+    // Autocomplete for the employee search box - lighter than the paged search
+    @GetMapping("/suggest")
+    public ResponseEntity<?> suggestEmployees(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(employeeService.suggestEmployees(query, limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to fetch suggestions: " + e.getMessage()));
+        }
+    }
+
     // ========== FIXED: Bulk operations with correct endpoints ==========
 
     @PostMapping("/bulk/delete")
@@ -161,17 +131,22 @@ public class EmployeeController {
     @PostMapping("/import/csv")
     public ResponseEntity<Map<String, Object>> importEmployeesFromCSV(@RequestParam("file") MultipartFile file) {
         try {
-            List<Employee> employees = employeeService.importFromCSV(file);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("imported", employees.size());
-            response.put("failed", 0);
-            response.put("total", employees.size());
-            response.put("message", "Successfully imported " + employees.size() + " employees");
-            response.put("employees", employees.stream()
-                .map(employeeService::convertToDTO)
-                .collect(Collectors.toList()));
-            return ResponseEntity.ok(response);
+            ImportResultDTO result = employeeService.importFromCSV(file);
+            return ResponseEntity.ok(createImportResponse(result));
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+            error.put("details", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @PostMapping("/import/excel")
+    public ResponseEntity<Map<String, Object>> importEmployeesFromExcel(@RequestParam("file") MultipartFile file) {
+        try {
+            ImportResultDTO result = employeeService.importFromExcel(file);
+            return ResponseEntity.ok(createImportResponse(result));
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
             error.put("success", false);
@@ -181,6 +156,48 @@ public class EmployeeController {
         }
     }
 
+    // ========== ASYNC IMPORT JOBS ==========
+
+    @PostMapping("/import/jobs")
+    public ResponseEntity<?> createImportJob(@RequestParam("file") MultipartFile file) {
+        try {
+            ImportJobDTO job = importJobService.submitJob(file);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to store upload: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    public ResponseEntity<?> getImportJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(importJobService.getJob(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Row numbers and rejection reasons for every row that was not imported
+    @GetMapping("/import/jobs/{id}/errors")
+    public ResponseEntity<?> downloadImportErrors(@PathVariable String id) {
+        try {
+            Path report = importJobService.getErrorReport(id);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import_errors_" + id + ".csv\"")
+                    .contentType(MediaType.parseMediaType("text/csv"))
+                    .body(new FileSystemResource(report));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
     // ========== EXISTING ENDPOINTS (with minor fixes) ==========
 
     @GetMapping
@@ -191,8 +208,32 @@ public class EmployeeController {
             @RequestParam(required = false) String department,
             @RequestParam(required = false) String position,
             @RequestParam(required = false) Double minSalary,
-            @RequestParam(required = false) Double maxSalary) {
-        
+            @RequestParam(required = false) Double maxSalary,
+            @RequestParam(required = false) String cursor) {
+
+        // Keyset mode - any cursor param, empty for the first page. Ordered by (firstName, id)
+        // and skips the count query; free-text search matches with LIKE as before.
+        if (cursor != null) {
+            try {
+                Slice<Employee> slice = employeeService.getEmployeesAfter(cursor, size, search, department, position, minSalary, maxSalary);
+                List<Employee> content = slice.getContent();
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("content", content);
+                response.put("pageSize", size);
+                response.put("hasNext", slice.hasNext());
+                response.put("nextCursor", slice.hasNext() ? employeeService.encodeCursor(content.get(content.size() - 1)) : null);
+                response.put("approximateTotal", employeeService.getApproximateTotal(search, department, position, minSalary, maxSalary));
+
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(createErrorResponse("Failed to fetch employees: " + e.getMessage()));
+            }
+        }
+
         try {
             Page<Employee> employees = employeeService.getAllEmployees(page, size, search, department, position, minSalary, maxSalary);
             
@@ -215,10 +256,12 @@ public class EmployeeController {
     @PostMapping("/bulk")
     public ResponseEntity<Map<String, Object>> createEmployeesBulk(@RequestBody List<EmployeeDTO> employees) {
         try {
-            List<Employee> created = employeeService.createEmployeesBulk(employees);
+            List<ImportRowErrorDTO> rejected = new ArrayList<>();
+            List<Employee> created = employeeService.createEmployeesBulk(employees, rejected);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Successfully created " + created.size() + " employees");
             response.put("count", created.size());
+            response.put("rejected", rejected);
             response.put("employees", created.stream()
                 .map(employeeService::convertToDTO)
                 .collect(Collectors.toList()));
@@ -564,6 +607,18 @@ public class EmployeeController {
         return email != null && email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
     }
 
+    private Map<String, Object> createImportResponse(ImportResultDTO result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("imported", result.getImported());
+        response.put("failed", result.getRejected());
+        response.put("total", result.getTotalRows());
+        response.put("message", "Successfully imported " + result.getImported() + " employees");
+        response.put("errors", result.getErrors());
+        response.put("durationMs", result.getDurationMs());
+        return response;
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("error", message);
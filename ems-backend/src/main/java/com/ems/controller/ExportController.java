@@ -1,13 +1,24 @@
 package com.ems.controller;
 
+import com.ems.dto.ExportFilter;
+import com.ems.dto.ExportJobDTO;
+import com.ems.service.ExportJobService;
 import com.ems.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/export")
@@ -21,86 +32,155 @@ public class ExportController {
     @Autowired
     private ExportService exportService;
 
-    @GetMapping("/employees/csv")
-    public ResponseEntity<Resource> exportEmployeesToCSV() {
-        try {
-            String filename = "employees_" + System.currentTimeMillis() + ".csv";
-            InputStreamResource file = new InputStreamResource(exportService.exportEmployeesToCSV());
+    @Autowired
+    private ExportJobService exportJobService;
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType("text/csv"))
-                    .contentLength(file.contentLength())
-                    .body(file);
-        } catch (Exception e) {
-            // Return error response
-            throw new RuntimeException("Failed to export CSV: " + e.getMessage(), e);
-        }
+    @GetMapping("/employees/csv")
+    public ResponseEntity<StreamingResponseBody> exportEmployeesToCSV(
+            @RequestParam(required = false) List<String> departments,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary) {
+        return streamExport("csv", buildFilter(departments, minSalary, maxSalary));
     }
 
     @GetMapping("/employees/excel")
-    public ResponseEntity<Resource> exportEmployeesToExcel() {
-        try {
-            String filename = "employees_" + System.currentTimeMillis() + ".xlsx";
-            InputStreamResource file = new InputStreamResource(exportService.exportEmployeesToExcel());
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                    .body(file);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export Excel: " + e.getMessage(), e);
-        }
+    public ResponseEntity<StreamingResponseBody> exportEmployeesToExcel(
+            @RequestParam(required = false) List<String> departments,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary) {
+        return streamExport("excel", buildFilter(departments, minSalary, maxSalary));
     }
 
     // ========== ADDITIONAL EXPORT OPTIONS ==========
     
     @GetMapping("/employees/json")
-    public ResponseEntity<Resource> exportEmployeesToJson() {
-        try {
-            // You can add JSON export later if needed
-            String filename = "employees_" + System.currentTimeMillis() + ".json";
-            // Implementation for JSON export would go here
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(null);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export JSON: " + e.getMessage(), e);
+    public ResponseEntity<StreamingResponseBody> exportEmployeesToJson(
+            @RequestParam(defaultValue = "false") boolean ndjson,
+            @RequestParam(required = false) List<String> departments,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        ExportFilter filter = buildFilter(departments, minSalary, maxSalary);
+        String filename = exportService.generateFilename(filter, ndjson ? ".ndjson" : ".json");
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        
+        // Rows are serialized as they come off the cursor, compressed on the fly if the client accepts gzip
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                exportService.writeEmployeesToJson(gzipOut, filter, ndjson, rows -> {});
+                gzipOut.finish();
+            } else {
+                exportService.writeEmployeesToJson(out, filter, ndjson, rows -> {});
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(getMediaType(ndjson ? "ndjson" : "json"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
+        return response.body(body);
     }
 
     // ========== BULK EXPORT BY DEPARTMENT ==========
     
     @GetMapping("/department/{department}")
-    public ResponseEntity<Resource> exportDepartmentEmployees(
+    public ResponseEntity<StreamingResponseBody> exportDepartmentEmployees(
             @PathVariable String department,
-            @RequestParam(defaultValue = "csv") String format) {
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary) {
         
+        // Only the requested department is read - the filter is applied in the query
+        ExportFilter filter = buildFilter(List.of(department), minSalary, maxSalary);
+        return streamExport(format.equalsIgnoreCase("excel") ? "excel" : "csv", filter);
+    }
+
+    // ========== ASYNC EXPORT JOBS ==========
+
+    @PostMapping("/jobs")
+    public ResponseEntity<?> createExportJob(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> departments,
+            @RequestParam(required = false) Double minSalary,
+            @RequestParam(required = false) Double maxSalary) {
         try {
-            String filename = "employees_" + department + "_" + System.currentTimeMillis() + 
-                             (format.equalsIgnoreCase("excel") ? ".xlsx" : ".csv");
-            
-            // You would need to implement department-specific export in ExportService
-            InputStreamResource file;
-            if (format.equalsIgnoreCase("excel")) {
-                file = new InputStreamResource(exportService.exportEmployeesToExcel()); // Modify to filter by department
-            } else {
-                file = new InputStreamResource(exportService.exportEmployeesToCSV()); // Modify to filter by department
-            }
-            
+            ExportJobDTO job = exportJobService.submitJob(format, buildFilter(departments, minSalary, maxSalary));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getExportJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(exportJobService.getJob(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
+        }
+    }
+
+    // Served as a Resource so Spring answers Range requests (206) and interrupted downloads can resume
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<?> downloadExportJob(@PathVariable String id) {
+        try {
+            Path file = exportJobService.getJobFile(id);
+            String filename = exportJobService.getJobFilename(id);
+            String format = filename.substring(filename.lastIndexOf('.') + 1)
+                .replace("xlsx", "excel");
+
             return ResponseEntity.ok()
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                     .contentType(getMediaType(format))
-                    .body(file);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to export department employees: " + e.getMessage(), e);
+                    .body(new FileSystemResource(file));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(e.getMessage()));
         }
     }
 
     // ========== HELPER METHODS ==========
     
+    // Rows are written straight to the servlet response as they are read
+    private ResponseEntity<StreamingResponseBody> streamExport(String format, ExportFilter filter) {
+        StreamingResponseBody body;
+        String filename;
+        if (format.equals("excel")) {
+            filename = exportService.generateFilename(filter, ".xlsx");
+            body = out -> exportService.writeEmployeesToExcel(out, filter, rows -> {});
+        } else {
+            filename = exportService.generateFilename(filter, ".csv");
+            body = out -> exportService.writeEmployeesToCSV(out, filter, rows -> {});
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(getMediaType(format))
+                .body(body);
+    }
+    
+    private ExportFilter buildFilter(List<String> departments, Double minSalary, Double maxSalary) {
+        List<String> cleaned = departments == null ? null : departments.stream()
+            .filter(d -> d != null && !d.trim().isEmpty())
+            .map(String::trim)
+            .distinct()
+            .collect(Collectors.toList());
+        return ExportFilter.builder()
+            .departments(cleaned)
+            .minSalary(minSalary)
+            .maxSalary(maxSalary)
+            .build();
+    }
+    
     private MediaType getMediaType(String format) {
         switch (format.toLowerCase()) {
             case "excel":
@@ -109,8 +189,18 @@ public class ExportController {
                 return MediaType.parseMediaType("text/csv");
             case "json":
                 return MediaType.APPLICATION_JSON;
+            case "ndjson":
+                return MediaType.parseMediaType("application/x-ndjson");
             default:
                 return MediaType.APPLICATION_OCTET_STREAM;
         }
     }
-}
+
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", message);
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        errorResponse.put("success", false);
+        return errorResponse;
+    }
+}
\ No newline at end of file
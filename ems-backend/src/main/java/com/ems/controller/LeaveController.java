@@ -19,6 +19,7 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/leave")
@@ -221,6 +222,47 @@ public class LeaveController {
         }
     }
     
+    // ?approverId=<employee id>, body: {"leaveIds": [1, 2, 3], "status": "APPROVED" | "REJECTED", "comments": "..."}
+    @PutMapping("/requests/bulk/decision")
+    public ResponseEntity<?> decideLeavesBulk(
+            @RequestParam Long approverId,
+            @RequestBody Map<String, Object> request) {
+        try {
+            List<?> rawIds = (List<?>) request.get("leaveIds");
+            Object status = request.get("status");
+            
+            if (rawIds == null || rawIds.isEmpty()) {
+                return ResponseEntity.badRequest()
+                    .body(createErrorResponse("No leave IDs provided"));
+            }
+            if (status == null) {
+                return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Status is required"));
+            }
+            
+            List<Long> leaveIds = rawIds.stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+            LeaveStatus decision = LeaveStatus.valueOf(status.toString().toUpperCase());
+            
+            BulkLeaveDecisionResultDTO result = leaveService.decideLeavesBulk(
+                leaveIds, decision, approverId, (String) request.get("comments"));
+            return ResponseEntity.ok(result);
+        } catch (ClassCastException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Leave IDs must be numbers"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Invalid status value. Use 'APPROVED' or 'REJECTED'"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Failed to decide leave requests: " + e.getMessage()));
+        }
+    }
+    
     @PutMapping("/requests/{id}/cancel")
     public ResponseEntity<?> cancelLeave(@PathVariable Long id) {
         try {
@@ -285,6 +327,21 @@ public class LeaveController {
         }
     }
     
+    @GetMapping("/coverage")
+    public ResponseEntity<?> getDepartmentCoverage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            List<DepartmentCoverageDTO> coverage = leaveService.getDepartmentCoverage(date);
+            return ResponseEntity.ok(coverage);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Failed to get department coverage: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/stats")
     public ResponseEntity<?> getLeaveStats() {
         try {
@@ -299,7 +356,12 @@ public class LeaveController {
     // ========== ADD THESE HELPER ENDPOINTS ==========
     
     @GetMapping("/dashboard-stats")
-    public ResponseEntity<?> getDashboardStats() {
+    public ResponseEntity<?> getDashboardStats(@RequestParam(defaultValue = "7") int upcomingDays) {
+        if (upcomingDays < 0) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Upcoming days must not be negative"));
+        }
+        
         try {
             Map<String, Object> stats = new HashMap<>();
             
@@ -310,9 +372,11 @@ public class LeaveController {
             stats.put("rejectedThisMonth", leaveStats.getRejectedThisMonth());
             stats.put("totalLeavesTaken", leaveStats.getTotalLeavesTaken());
             
-            // Add mock data for demo
-            stats.put("upcomingLeaves", 5);
-            stats.put("onLeaveToday", 2);
+            // Who is out - from the in-memory occupancy matrix
+            stats.put("upcomingLeaves", leaveService.countUpcomingLeaves(upcomingDays));
+            stats.put("upcomingDays", upcomingDays);
+            stats.put("onLeaveToday", leaveService.countOnLeaveToday());
+            stats.put("departmentCoverage", leaveService.getDepartmentCoverage(null));
             
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
@@ -333,6 +397,7 @@ public class LeaveController {
             "/api/leave/my-requests",
             "/api/leave/balance",
             "/api/leave/calendar",
+            "/api/leave/coverage",
             "/api/leave/stats"
         ));
         return ResponseEntity.ok(response);
@@ -0,0 +1,19 @@
+package com.ems.dto;
+
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one leave request in a bulk decision - status is the request's status afterwards
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLeaveDecisionItemDTO {
+    private Long leaveId;
+    private Boolean success;
+    private LeaveStatus status;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.ems.dto;
+
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkLeaveDecisionResultDTO {
+    private LeaveStatus decision;
+    private Integer requested;
+    private Integer succeeded;
+    private Integer failed;
+    private List<BulkLeaveDecisionItemDTO> results;   // In request order
+}
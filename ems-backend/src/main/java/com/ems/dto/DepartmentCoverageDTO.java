@@ -0,0 +1,21 @@
+package com.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Share of a department that is at work (not on approved leave) on one day
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentCoverageDTO {
+    private String department;
+    private LocalDate date;
+    private Long headcount;
+    private Integer onLeave;
+    private Double coveragePercent;
+}
@@ -0,0 +1,20 @@
+package com.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Headcount and salary figures for one department (or the whole company when department is null)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentStatsDTO {
+    private String department;
+    private Long headcount;
+    private Double totalSalary;
+    private Double minSalary;
+    private Double maxSalary;
+    private Double averageSalary;
+}
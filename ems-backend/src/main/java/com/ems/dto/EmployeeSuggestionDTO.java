@@ -0,0 +1,18 @@
+package com.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSuggestionDTO {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String department;
+}
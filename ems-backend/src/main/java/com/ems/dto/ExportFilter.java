@@ -0,0 +1,27 @@
+package com.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Optional export filters - same salary range semantics as EmployeeRepository.advancedSearch
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportFilter {
+    private List<String> departments;
+    private Double minSalary;
+    private Double maxSalary;
+    
+    public static ExportFilter all() {
+        return new ExportFilter();
+    }
+    
+    public boolean hasDepartments() {
+        return departments != null && !departments.isEmpty();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobDTO {
+    private String id;
+    private String filename;
+    private JobStatus status;
+    private Long rowsParsed;
+    private Long rowsInserted;
+    private Long rowsRejected;
+    private String errorReportUrl;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private Long durationMs;
+}
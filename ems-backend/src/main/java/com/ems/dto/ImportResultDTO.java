@@ -0,0 +1,20 @@
+package com.ems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private Long totalRows;
+    private Long imported;
+    private Long rejected;
+    private List<ImportRowErrorDTO> errors;   // Capped - see EmployeeImportPipeline.MAX_REPORTED_ERRORS
+    private Long durationMs;
+}
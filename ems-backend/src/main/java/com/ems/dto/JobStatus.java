@@ -0,0 +1,5 @@
+package com.ems.dto;
+
+public enum JobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
@@ -50,6 +50,10 @@ public class Employee {
     private LocalDateTime hireDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    
+    // Optimistic lock - a stale edit can no longer overwrite leave balances changed meanwhile
+    @Version
+    private Long version;
     @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 private List<LeaveRequest> leaveRequests = new ArrayList<>();
 
@@ -238,6 +242,9 @@ public void setEmergencyContactPhone(String emergencyContactPhone) {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 
     // Helper method to get formatted phone number
     public String getFormattedPhoneNumber() {
@@ -0,0 +1,60 @@
+package com.ems.entity;
+
+import com.ems.entity.LeaveRequest.LeaveType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of every change to an employee's used leave days made through leave
+ * approval. Approvals add a DEDUCT entry with positive days, cancellations of approved leave a
+ * REFUND with negative days. The ledger starts empty (V3 records no opening balances), so a
+ * used-days counter on Employee equals its value when the ledger was introduced plus the sum of
+ * the ledger - for employees created since then, the sum alone.
+ */
+@Entity
+@Table(name = "leave_ledger")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false, updatable = false)
+    private Long employeeId;
+
+    @Column(name = "leave_request_id", nullable = false, updatable = false)
+    private Long leaveRequestId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LeaveType leaveType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private EntryType entryType;
+
+    @Column(nullable = false, updatable = false)
+    private Integer days;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum EntryType {
+        DEDUCT, REFUND
+    }
+
+    public LeaveLedgerEntry(Long employeeId, Long leaveRequestId, LeaveType leaveType, EntryType entryType, int days) {
+        this.employeeId = employeeId;
+        this.leaveRequestId = leaveRequestId;
+        this.leaveType = leaveType;
+        this.entryType = entryType;
+        this.days = days;
+    }
+}
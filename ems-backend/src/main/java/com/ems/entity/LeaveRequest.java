@@ -55,6 +55,10 @@ public class LeaveRequest {
     
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Optimistic lock - of two concurrent decisions on one request only the first commits
+    @Version
+    private Long version;
+    
     public enum LeaveType {
         VACATION, SICK, PERSONAL, MATERNITY, PATERNITY, UNPAID
     }
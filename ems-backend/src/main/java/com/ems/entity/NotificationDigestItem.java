@@ -0,0 +1,39 @@
+package com.ems.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a pending digest email - for example a new leave request for the approving
+ * manager. Written in the caller's transaction and folded into a single outbox email per
+ * recipient by NotificationDigestScheduler.
+ */
+@Entity
+@Table(name = "notification_digest_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDigestItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false, length = 1000)
+    private String summary;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public NotificationDigestItem(String recipient, String summary) {
+        this.recipient = recipient;
+        this.summary = summary;
+    }
+}
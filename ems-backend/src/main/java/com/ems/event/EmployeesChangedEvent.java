@@ -0,0 +1,46 @@
+package com.ems.event;
+
+import com.ems.entity.Employee;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published after employees are created, updated or deleted so that in-memory views
+ * (statistics, search indexes) can be updated incrementally instead of re-reading the table.
+ * Saved employees always carry their database id.
+ */
+public class EmployeesChangedEvent {
+
+    private final List<Employee> saved;
+    private final List<Long> deletedIds;
+
+    private EmployeesChangedEvent(List<Employee> saved, List<Long> deletedIds) {
+        this.saved = saved;
+        this.deletedIds = deletedIds;
+    }
+
+    public static EmployeesChangedEvent saved(List<Employee> employees) {
+        return new EmployeesChangedEvent(employees, Collections.emptyList());
+    }
+
+    public static EmployeesChangedEvent saved(Employee employee) {
+        return saved(List.of(employee));
+    }
+
+    public static EmployeesChangedEvent deleted(List<Long> ids) {
+        return new EmployeesChangedEvent(Collections.emptyList(), ids);
+    }
+
+    public static EmployeesChangedEvent deleted(Long id) {
+        return deleted(List.of(id));
+    }
+
+    public List<Employee> getSaved() {
+        return saved;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
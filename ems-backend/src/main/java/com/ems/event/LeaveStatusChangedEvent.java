@@ -0,0 +1,27 @@
+package com.ems.event;
+
+import com.ems.dto.LeaveRequestDTO;
+
+/**
+ * Published whenever a leave request changes status (approved, rejected, cancelled) so that
+ * in-memory leave views can be updated without re-reading leave_requests. Carries the leave
+ * as it was saved together with the employee's department.
+ */
+public class LeaveStatusChangedEvent {
+
+    private final LeaveRequestDTO leave;
+    private final String department;
+
+    public LeaveStatusChangedEvent(LeaveRequestDTO leave, String department) {
+        this.leave = leave;
+        this.department = department;
+    }
+
+    public LeaveRequestDTO getLeave() {
+        return leave;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+}
@@ -1,14 +1,26 @@
 package com.ems.repository;
 
+import com.ems.config.CacheConfig;
+import com.ems.dto.DepartmentStatsDTO;
 import com.ems.entity.Employee;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
@@ -40,13 +52,168 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
                                  @Param("maxSalary") Double maxSalary,
                                  Pageable pageable);
     
+    // Keyset pagination on (firstName, id) - same filters as advancedSearch. Returning a Slice
+    // skips the count query; the caller passes an unsorted PageRequest.of(0, size).
+    @Query("SELECT e FROM Employee e WHERE " +
+           "(:search IS NULL OR " +
+           "LOWER(e.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.department) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.position) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:department IS NULL OR e.department = :department) AND " +
+           "(:position IS NULL OR e.position = :position) AND " +
+           "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
+           "(:maxSalary IS NULL OR e.salary <= :maxSalary) " +
+           "ORDER BY e.firstName ASC, e.id ASC")
+    Slice<Employee> findFirstKeysetPage(@Param("search") String search,
+                                        @Param("department") String department,
+                                        @Param("position") String position,
+                                        @Param("minSalary") Double minSalary,
+                                        @Param("maxSalary") Double maxSalary,
+                                        Pageable pageable);
+    
+    @Query("SELECT e FROM Employee e WHERE " +
+           // The redundant >= gives the planner a range start on the (first_name, id) index
+           "e.firstName >= :afterName AND " +
+           "(e.firstName > :afterName OR (e.firstName = :afterName AND e.id > :afterId)) AND " +
+           "(:search IS NULL OR " +
+           "LOWER(e.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.email) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.department) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(e.position) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
+           "(:department IS NULL OR e.department = :department) AND " +
+           "(:position IS NULL OR e.position = :position) AND " +
+           "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
+           "(:maxSalary IS NULL OR e.salary <= :maxSalary) " +
+           "ORDER BY e.firstName ASC, e.id ASC")
+    Slice<Employee> findKeysetPageAfter(@Param("afterName") String afterName,
+                                        @Param("afterId") Long afterId,
+                                        @Param("search") String search,
+                                        @Param("department") String department,
+                                        @Param("position") String position,
+                                        @Param("minSalary") Double minSalary,
+                                        @Param("maxSalary") Double maxSalary,
+                                        Pageable pageable);
+    
+    // Cached - evicted by LookupCacheEvictor whenever employees change
+    @Cacheable(CacheConfig.DEPARTMENTS)
     @Query("SELECT DISTINCT e.department FROM Employee e ORDER BY e.department")
     List<String> findDistinctDepartments();
     
+    @Cacheable(CacheConfig.POSITIONS)
     @Query("SELECT DISTINCT e.position FROM Employee e ORDER BY e.position")
     List<String> findDistinctPositions();
     
     boolean existsByEmail(String email);
     
+    // Resolves a whole chunk of candidate emails in one round trip
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    // Atomic leave balance moves: the allowance check and the increment happen in one statement, so
+    // concurrent approvals can never push used days past the allowance. Returns 0 when the
+    // deduction would overdraw the balance.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Employee e SET e.usedVacation = e.usedVacation + :days, e.version = e.version + 1 " +
+           "WHERE e.id = :id AND e.usedVacation + :days <= e.vacationDays")
+    int deductUsedVacation(@Param("id") Long id, @Param("days") int days);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Employee e SET e.usedSick = e.usedSick + :days, e.version = e.version + 1 " +
+           "WHERE e.id = :id AND e.usedSick + :days <= e.sickDays")
+    int deductUsedSick(@Param("id") Long id, @Param("days") int days);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Employee e SET e.usedPersonal = e.usedPersonal + :days, e.version = e.version + 1 " +
+           "WHERE e.id = :id AND e.usedPersonal + :days <= e.personalDays")
+    int deductUsedPersonal(@Param("id") Long id, @Param("days") int days);
+    
+    // Refunds only guard against going below zero - an allowance lowered below the days already
+    // used must not stop an approved leave from being cancelled
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Employee e SET e.usedVacation = e.usedVacation - :days, e.version = e.version + 1 " +
+           "WHERE e.id = :id AND e.usedVacation - :days >= 0")
+    int refundUsedVacation(@Param("id") Long id, @Param("days") int days);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Employee e SET e.usedSick = e.usedSick - :days, e.version = e.version + 1 " +
+           "WHERE e.id = :id AND e.usedSick - :days >= 0")
+    int refundUsedSick(@Param("id") Long id, @Param("days") int days);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Employee e SET e.usedPersonal = e.usedPersonal - :days, e.version = e.version + 1 " +
+           "WHERE e.id = :id AND e.usedPersonal - :days >= 0")
+    int refundUsedPersonal(@Param("id") Long id, @Param("days") int days);
+    
     Page<Employee> findByDepartment(String department, Pageable pageable);
+    
+    // Salary statistics in a single pass - SUM/MIN/MAX/AVG skip null salaries, COUNT does not.
+    // Serves the stats until EmployeeStatsAggregator is built.
+    @Query("SELECT new com.ems.dto.DepartmentStatsDTO(e.department, COUNT(e), SUM(e.salary), " +
+           "MIN(e.salary), MAX(e.salary), AVG(e.salary)) " +
+           "FROM Employee e GROUP BY e.department ORDER BY e.department")
+    List<DepartmentStatsDTO> getDepartmentStatistics();
+    
+    // The same figures for the whole company - department is null
+    @Query("SELECT new com.ems.dto.DepartmentStatsDTO(CAST(NULL AS String), COUNT(e), SUM(e.salary), " +
+           "MIN(e.salary), MAX(e.salary), AVG(e.salary)) FROM Employee e")
+    DepartmentStatsDTO getCompanyStatistics();
+    
+    // [id, department, salary] for every employee - used to build the in-memory statistics
+    @Query("SELECT e.id, e.department, e.salary FROM Employee e")
+    List<Object[]> findAllDepartmentAndSalary();
+    
+    // [id, firstName, lastName, email, department, position, salary] for rebuilding the search index
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.id, e.firstName, e.lastName, e.email, e.department, e.position, e.salary FROM Employee e")
+    Stream<Object[]> streamSearchFields();
+    
+    // Forward-only cursor for exports - must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e ORDER BY e.firstName ASC")
+    Stream<Employee> streamAllForExport();
+    
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE " +
+           "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
+           "(:maxSalary IS NULL OR e.salary <= :maxSalary) " +
+           "ORDER BY e.firstName ASC")
+    Stream<Employee> streamBySalaryRangeForExport(@Param("minSalary") Double minSalary,
+                                                  @Param("maxSalary") Double maxSalary);
+    
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e WHERE e.department IN :departments AND " +
+           "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
+           "(:maxSalary IS NULL OR e.salary <= :maxSalary) " +
+           "ORDER BY e.firstName ASC")
+    Stream<Employee> streamByDepartmentsForExport(@Param("departments") Collection<String> departments,
+                                                  @Param("minSalary") Double minSalary,
+                                                  @Param("maxSalary") Double maxSalary);
+    
+    @Query("SELECT COUNT(e) FROM Employee e WHERE " +
+           "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
+           "(:maxSalary IS NULL OR e.salary <= :maxSalary)")
+    long countBySalaryRange(@Param("minSalary") Double minSalary,
+                            @Param("maxSalary") Double maxSalary);
+    
+    @Query("SELECT COUNT(e) FROM Employee e WHERE e.department IN :departments AND " +
+           "(:minSalary IS NULL OR e.salary >= :minSalary) AND " +
+           "(:maxSalary IS NULL OR e.salary <= :maxSalary)")
+    long countByDepartmentsAndSalaryRange(@Param("departments") Collection<String> departments,
+                                          @Param("minSalary") Double minSalary,
+                                          @Param("maxSalary") Double maxSalary);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.ems.repository;
+
+import com.ems.entity.LeaveLedgerEntry;
+import com.ems.entity.LeaveRequest.LeaveType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LeaveLedgerRepository extends JpaRepository<LeaveLedgerEntry, Long> {
+    
+    List<LeaveLedgerEntry> findByEmployeeIdOrderByIdAsc(Long employeeId);
+    
+    // Used days moved by approvals and cancellations - see LeaveLedgerEntry for how this relates to Employee
+    @Query("SELECT COALESCE(SUM(l.days), 0) FROM LeaveLedgerEntry l " +
+           "WHERE l.employeeId = :employeeId AND l.leaveType = :leaveType")
+    long sumDays(@Param("employeeId") Long employeeId, @Param("leaveType") LeaveType leaveType);
+}
@@ -1,10 +1,21 @@
 package com.ems.repository;
 
+import com.ems.config.CacheConfig;
 import com.ems.entity.LeavePolicy;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface LeavePolicyRepository extends JpaRepository<LeavePolicy, Long> {
+    // Cached - evicted by save. An empty table is not cached, so the default policy
+    // LeaveService creates for it is read back on the next call.
+    @Cacheable(value = CacheConfig.LEAVE_POLICY, unless = "#result == null")
     LeavePolicy findTopByOrderByIdDesc();
-}
\ No newline at end of file
+
+    // Every new or updated policy becomes the current one
+    @Override
+    @CacheEvict(value = CacheConfig.LEAVE_POLICY, allEntries = true)
+    <S extends LeavePolicy> S save(S policy);
+}
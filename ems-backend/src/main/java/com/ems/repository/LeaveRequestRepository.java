@@ -1,5 +1,7 @@
 package com.ems.repository;
 
+import com.ems.dto.LeaveRequestDTO;
+import com.ems.dto.LeaveStatsDTO;
 import com.ems.entity.LeaveRequest;
 import com.ems.entity.LeaveRequest.LeaveStatus;
 import org.springframework.data.domain.Page;
@@ -10,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -29,24 +32,59 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
                                             @Param("startDate") LocalDate startDate,
                                             @Param("endDate") LocalDate endDate);
     
-    @Query("SELECT COUNT(l) FROM LeaveRequest l WHERE l.status = 'PENDING'")
-    Long countPendingRequests();
+    // Every leave statistic in one pass over leave_requests - "this month" is the half-open
+    // start date range [monthStart, nextMonthStart). Averages are null when nothing is approved.
+    @Query("SELECT new com.ems.dto.LeaveStatsDTO(" +
+           "COALESCE(SUM(CASE WHEN l.status = 'PENDING' THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN l.status = 'APPROVED' AND l.startDate >= :monthStart " +
+           "AND l.startDate < :nextMonthStart THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN l.status = 'REJECTED' AND l.startDate >= :monthStart " +
+           "AND l.startDate < :nextMonthStart THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN l.status = 'APPROVED' THEN 1 ELSE 0 END), 0), " +
+           "AVG(CASE WHEN l.status = 'APPROVED' THEN l.totalDays ELSE NULL END)) " +
+           "FROM LeaveRequest l")
+    LeaveStatsDTO aggregateStats(@Param("monthStart") LocalDate monthStart,
+                                 @Param("nextMonthStart") LocalDate nextMonthStart);
     
-    @Query("SELECT COUNT(l) FROM LeaveRequest l WHERE l.status = 'APPROVED' AND " +
-           "YEAR(l.startDate) = YEAR(CURRENT_DATE) AND MONTH(l.startDate) = MONTH(CURRENT_DATE)")
-    Long countApprovedThisMonth();
+    // ========== DTO PROJECTIONS ==========
+    // Employee and approver names are joined in the same statement - mapping LeaveRequest
+    // entities instead lazy-loads both for every row
     
-    @Query("SELECT l FROM LeaveRequest l WHERE " +
-           "(l.startDate BETWEEN :startDate AND :endDate) OR " +
-           "(l.endDate BETWEEN :startDate AND :endDate)")
-    List<LeaveRequest> findByDateRange(@Param("startDate") LocalDate startDate,
-                                      @Param("endDate") LocalDate endDate);
+    String DTO_SELECT = "SELECT new com.ems.dto.LeaveRequestDTO(" +
+           "l.id, e.id, CONCAT(e.firstName, ' ', e.lastName), l.leaveType, l.startDate, l.endDate, " +
+           "l.totalDays, l.reason, l.status, " +
+           "CASE WHEN a.id IS NULL THEN NULL ELSE CONCAT(a.firstName, ' ', a.lastName) END, " +
+           "l.approvalComments, l.approvedDate, l.createdAt) " +
+           "FROM LeaveRequest l JOIN l.employee e LEFT JOIN l.approvedBy a ";
     
-    @Query("SELECT l FROM LeaveRequest l WHERE l.employee.department = :department AND " +
-           "l.status = 'APPROVED' AND " +
-           "((l.startDate BETWEEN :startDate AND :endDate) OR " +
-           "(l.endDate BETWEEN :startDate AND :endDate))")
-    List<LeaveRequest> findByDepartmentAndDateRange(@Param("department") String department,
-                                                   @Param("startDate") LocalDate startDate,
-                                                   @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+    @Query(value = DTO_SELECT,
+           countQuery = "SELECT COUNT(l) FROM LeaveRequest l")
+    Page<LeaveRequestDTO> findAllDTOs(Pageable pageable);
+    
+    @Query(value = DTO_SELECT + "WHERE l.status = :status",
+           countQuery = "SELECT COUNT(l) FROM LeaveRequest l WHERE l.status = :status")
+    Page<LeaveRequestDTO> findDTOsByStatus(@Param("status") LeaveStatus status, Pageable pageable);
+    
+    @Query(DTO_SELECT + "WHERE e.id = :employeeId ORDER BY l.startDate DESC")
+    List<LeaveRequestDTO> findDTOsByEmployeeId(@Param("employeeId") Long employeeId);
+    
+    // Approved leaves overlapping the window - also matches leaves that span all of it
+    @Query(DTO_SELECT + "WHERE l.status = 'APPROVED' AND " +
+           "l.startDate <= :endDate AND l.endDate >= :startDate ORDER BY l.startDate")
+    List<LeaveRequestDTO> findApprovedDTOsInRange(@Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+    
+    @Query(DTO_SELECT + "WHERE e.department = :department AND l.status = 'APPROVED' AND " +
+           "l.startDate <= :endDate AND l.endDate >= :startDate ORDER BY l.startDate")
+    List<LeaveRequestDTO> findApprovedDTOsInRangeForDepartment(@Param("department") String department,
+                                                               @Param("startDate") LocalDate startDate,
+                                                               @Param("endDate") LocalDate endDate);
+    
+    // Loads the employee and approver with each leave - used to build in-memory leave views
+    @Query("SELECT l FROM LeaveRequest l JOIN FETCH l.employee LEFT JOIN FETCH l.approvedBy WHERE l.status = :status")
+    List<LeaveRequest> findByStatusWithEmployees(@Param("status") LeaveStatus status);
+    
+    // Leaves of a bulk decision together with their employees, in one round trip
+    @Query("SELECT l FROM LeaveRequest l JOIN FETCH l.employee WHERE l.id IN :ids")
+    List<LeaveRequest> findAllWithEmployeesByIdIn(@Param("ids") Collection<Long> ids);
+}
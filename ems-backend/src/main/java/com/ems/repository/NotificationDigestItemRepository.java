@@ -0,0 +1,19 @@
+package com.ems.repository;
+
+import com.ems.entity.NotificationDigestItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationDigestItemRepository extends JpaRepository<NotificationDigestItem, Long> {
+    
+    // [recipient, pending items, oldest createdAt] per recipient - decides whose digest is due
+    @Query("SELECT d.recipient, COUNT(d), MIN(d.createdAt) FROM NotificationDigestItem d GROUP BY d.recipient")
+    List<Object[]> summarizeByRecipient();
+    
+    List<NotificationDigestItem> findByRecipientOrderByIdAsc(String recipient, Pageable pageable);
+}
@@ -0,0 +1,27 @@
+package com.ems.repository;
+
+import com.ems.entity.NotificationOutbox;
+import com.ems.entity.NotificationOutbox.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    
+    // Oldest due messages first - served by idx_notification_outbox_due
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.status = 'PENDING' AND n.nextAttemptAt <= :now ORDER BY n.id")
+    List<NotificationOutbox> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    long countByStatus(OutboxStatus status);
+    
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox n WHERE n.status = 'SENT' AND n.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
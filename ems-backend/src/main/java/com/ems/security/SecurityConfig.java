@@ -142,7 +142,10 @@ public class SecurityConfig {
             "Authorization",
             "Content-Type",
             "Access-Control-Allow-Origin",
-            "Access-Control-Allow-Credentials"
+            "Access-Control-Allow-Credentials",
+            "Content-Disposition",
+            "Content-Range",
+            "Accept-Ranges"
         ));
         
         // Allow credentials
@@ -1,7 +1,6 @@
 package com.ems.service;
 
-import com.ems.entity.Employee;
-import com.ems.repository.EmployeeRepository;
+import com.ems.dto.ImportResultDTO;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -10,64 +9,45 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class CSVImportService {
     
-    private final EmployeeRepository employeeRepository;
+    private final EmployeeImportPipeline importPipeline;
     
-    public List<Employee> importEmployeesFromCSV(MultipartFile file) throws Exception {
-        List<Employee> employees = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
-             CSVParser csvParser = new CSVParser(reader, 
-                 CSVFormat.DEFAULT.withFirstRecordAsHeader().withIgnoreHeaderCase().withTrim())) {
-            
-            for (CSVRecord record : csvParser) {
-                Employee employee = new Employee();
-                
-                // Map CSV columns to Employee fields
-                employee.setFirstName(record.get("firstname"));
-                employee.setLastName(record.get("lastname"));
-                employee.setEmail(record.get("email").toLowerCase());
-                employee.setDepartment(record.get("department"));
-                employee.setPosition(record.get("position"));
-                
-                // Parse salary
-                try {
-                    employee.setSalary(Double.parseDouble(record.get("salary")));
-                } catch (NumberFormatException e) {
-                    employee.setSalary(0.0);
-                }
-                
-                // Set default values
-                employee.setPhoneNumber(record.isMapped("phone") ? record.get("phone") : "");
-                employee.setCountryCode("+1");
-                employee.setVacationDays(20);
-                employee.setSickDays(10);
-                employee.setPersonalDays(5);
-                employee.setUsedVacation(0);
-                employee.setUsedSick(0);
-                employee.setUsedPersonal(0);
+    public ImportResultDTO importEmployeesFromCSV(MultipartFile file) throws Exception {
+        try (InputStream in = file.getInputStream()) {
+            return importEmployeesFromCSV(in);
+        }
+    }
+    
+    // Records are streamed into the import pipeline - the file is never held in memory
+    public ImportResultDTO importEmployeesFromCSV(InputStream in) {
+        return importEmployeesFromCSV(in, ImportProgressListener.NONE);
+    }
+    
+    public ImportResultDTO importEmployeesFromCSV(InputStream in, ImportProgressListener listener) {
+        return importPipeline.run(sink -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.UTF_8));
+                 CSVParser csvParser = new CSVParser(reader, 
+                     CSVFormat.DEFAULT.withFirstRecordAsHeader().withIgnoreHeaderCase().withTrim())) {
                 
-                // Validate required fields
-                if (employee.getFirstName() == null || employee.getFirstName().isEmpty() ||
-                    employee.getLastName() == null || employee.getLastName().isEmpty() ||
-                    employee.getEmail() == null || employee.getEmail().isEmpty()) {
-                    continue; // Skip invalid rows
+                for (CSVRecord record : csvParser) {
+                    // Header names are matched case-insensitively
+                    Map<String, String> values = new HashMap<>();
+                    record.toMap().forEach((header, value) -> values.put(header.toLowerCase(), value));
+                    
+                    // Line 1 is the header, so data rows start at line 2
+                    sink.accept(new ImportRow(record.getRecordNumber() + 1, values));
                 }
-                
-                employees.add(employee);
             }
-        }
-        
-        // Save all employees
-        return employeeRepository.saveAll(employees);
+        }, listener);
     }
 }
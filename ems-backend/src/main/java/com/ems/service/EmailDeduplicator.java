@@ -0,0 +1,76 @@
+package com.ems.service;
+
+import com.ems.repository.EmployeeRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set-based duplicate-email detection for imports. Emails already in the database are
+ * resolved with one IN query per chunk; duplicates inside the same file are caught with
+ * a hash set of everything seen so far. Emails are compared trimmed and lower-cased, which is
+ * how imports store them. One instance per import - it is not thread safe.
+ */
+public class EmailDeduplicator {
+
+    // Keep IN lists well below the bind-parameter limits of the supported databases
+    static final int MAX_IN_LIST = 1000;
+
+    private final EmployeeRepository employeeRepository;
+    private final Set<String> seen = new HashSet<>();
+
+    public EmailDeduplicator(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    /**
+     * Returns the reason each email in the chunk must be rejected, or null for emails that
+     * are free to insert. The result lines up index-for-index with the input.
+     */
+    public List<String> check(List<String> emails) {
+        List<String> reasons = new ArrayList<>(emails.size());
+        List<String> candidates = new ArrayList<>(emails.size());
+        Set<String> chunkSeen = new HashSet<>();
+
+        for (String email : emails) {
+            String key = normalize(email);
+            if (key == null) {
+                reasons.add(null);
+            } else if (seen.contains(key) || !chunkSeen.add(key)) {
+                reasons.add("Duplicate email within this import: " + email);
+            } else {
+                reasons.add(null);
+                candidates.add(key);
+            }
+        }
+
+        Set<String> existing = findExisting(candidates);
+        for (int i = 0; i < emails.size(); i++) {
+            String key = normalize(emails.get(i));
+            if (reasons.get(i) == null && key != null && existing.contains(key)) {
+                reasons.set(i, "Email already exists: " + emails.get(i));
+            }
+        }
+
+        seen.addAll(chunkSeen);
+        return reasons;
+    }
+
+    private Set<String> findExisting(List<String> candidates) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += MAX_IN_LIST) {
+            Collection<String> slice = candidates.subList(from, Math.min(from + MAX_IN_LIST, candidates.size()));
+            for (String email : employeeRepository.findExistingEmails(slice)) {
+                existing.add(normalize(email));
+            }
+        }
+        return existing;
+    }
+
+    private String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ems.service;
+
+import com.ems.entity.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+// Plain JDBC batch inserts for imports - Employee uses IDENTITY ids, so Hibernate
+// would otherwise issue one INSERT round-trip per row
+@Component
+public class EmployeeBatchWriter {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO employees (first_name, last_name, email, phone_number, country_code, " +
+        "department, position, salary, hire_date, created_at, updated_at, " +
+        "vacation_days, sick_days, personal_days, used_vacation, used_sick, used_personal) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public EmployeeBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Inserts the whole chunk as one JDBC batch in its own transaction and copies the
+    // generated ids back onto the employees
+    public void insertChunk(List<Employee> employees) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bindEmployee(ps, employees.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return employees.size();
+                    }
+                },
+                keyHolder));
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < employees.size(); i++) {
+            employees.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    public void insertOne(Employee employee) {
+        insertChunk(List.of(employee));
+    }
+
+    private void bindEmployee(PreparedStatement ps, Employee employee) throws SQLException {
+        ps.setString(1, employee.getFirstName());
+        ps.setString(2, employee.getLastName());
+        ps.setString(3, employee.getEmail());
+        ps.setString(4, employee.getPhoneNumber());
+        ps.setString(5, employee.getCountryCode());
+        ps.setString(6, employee.getDepartment());
+        ps.setString(7, employee.getPosition());
+        if (employee.getSalary() != null) {
+            ps.setDouble(8, employee.getSalary());
+        } else {
+            ps.setNull(8, Types.DOUBLE);
+        }
+        ps.setTimestamp(9, Timestamp.valueOf(employee.getHireDate()));
+        ps.setTimestamp(10, Timestamp.valueOf(employee.getCreatedAt()));
+        ps.setTimestamp(11, Timestamp.valueOf(employee.getUpdatedAt()));
+        ps.setInt(12, employee.getVacationDays());
+        ps.setInt(13, employee.getSickDays());
+        ps.setInt(14, employee.getPersonalDays());
+        ps.setInt(15, employee.getUsedVacation());
+        ps.setInt(16, employee.getUsedSick());
+        ps.setInt(17, employee.getUsedPersonal());
+    }
+}
@@ -0,0 +1,366 @@
+package com.ems.service;
+
+import com.ems.dto.ImportResultDTO;
+import com.ems.dto.ImportRowErrorDTO;
+import com.ems.entity.Employee;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.repository.EmployeeRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Import pipeline: parse -> validate -> insert, connected by bounded queues of chunks.
+ * Parsing and validation run on their own threads while the calling thread inserts,
+ * so at most (queue capacity * 2 + 1) chunks are held in memory at any time.
+ * Duplicate emails are rejected per chunk by the validate stage, costing one query per chunk.
+ *
+ * Each chunk is committed on its own. If a stage fails part-way through the file the whole
+ * pipeline is aborted, but chunks inserted before the failure stay committed - the error
+ * says how many rows that was, and re-running the file rejects them as duplicates.
+ */
+@Service
+public class EmployeeImportPipeline {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    // End-of-stream marker passed down the queues
+    private static final List<ImportRow> END = Collections.emptyList();
+
+    private final EmployeeBatchWriter batchWriter;
+    private final EmployeeRepository employeeRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolTaskExecutor importPipelineExecutor;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Autowired
+    public EmployeeImportPipeline(EmployeeBatchWriter batchWriter, EmployeeRepository employeeRepository,
+                                  Validator validator, ApplicationEventPublisher eventPublisher,
+                                  @Qualifier("importPipelineExecutor") ThreadPoolTaskExecutor importPipelineExecutor) {
+        this.batchWriter = batchWriter;
+        this.employeeRepository = employeeRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.importPipelineExecutor = importPipelineExecutor;
+    }
+
+    public ImportResultDTO run(ImportRowSource source) {
+        return run(source, ImportProgressListener.NONE);
+    }
+
+    public ImportResultDTO run(ImportRowSource source, ImportProgressListener listener) {
+        long started = System.currentTimeMillis();
+        BlockingQueue<List<ImportRow>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<ImportRow>> validated = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ImportStats stats = new ImportStats(listener);
+
+        try {
+            importPipelineExecutor.execute(() -> parseStage(source, parsed, aborted, failure, listener));
+            importPipelineExecutor.execute(() -> validateStage(parsed, validated, aborted, failure));
+        } catch (TaskRejectedException e) {
+            aborted.set(true);
+            throw new RuntimeException("Too many imports in progress, please try again later");
+        }
+
+        try {
+            insertStage(validated, aborted, stats);
+        } catch (RuntimeException e) {
+            aborted.set(true);
+            throw e;
+        }
+
+        if (failure.get() != null) {
+            aborted.set(true);
+            throw new RuntimeException("Import failed after " + stats.imported + " rows were imported: "
+                + failure.get().getMessage(), failure.get());
+        }
+
+        System.out.println("📥 Import finished: " + stats.imported + " imported, " + stats.rejected + " rejected in "
+            + (System.currentTimeMillis() - started) + " ms");
+
+        return ImportResultDTO.builder()
+            .totalRows(stats.imported + stats.rejected)
+            .imported(stats.imported)
+            .rejected(stats.rejected)
+            .errors(stats.errors)
+            .durationMs(System.currentTimeMillis() - started)
+            .build();
+    }
+
+    // ========== STAGES ==========
+
+    private void parseStage(ImportRowSource source, BlockingQueue<List<ImportRow>> out,
+                            AtomicBoolean aborted, AtomicReference<Throwable> failure,
+                            ImportProgressListener listener) {
+        List<List<ImportRow>> pending = new ArrayList<>(1);
+        pending.add(new ArrayList<>(chunkSize));
+        try {
+            source.read(row -> {
+                List<ImportRow> chunk = pending.get(0);
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    put(out, chunk, aborted);
+                    listener.rowsParsed(chunk.size());
+                    pending.set(0, new ArrayList<>(chunkSize));
+                }
+            });
+            if (!pending.get(0).isEmpty()) {
+                put(out, pending.get(0), aborted);
+                listener.rowsParsed(pending.get(0).size());
+            }
+        } catch (Throwable t) {
+            fail(t, aborted, failure);
+        } finally {
+            put(out, END, aborted);
+        }
+    }
+
+    private void validateStage(BlockingQueue<List<ImportRow>> in, BlockingQueue<List<ImportRow>> out,
+                               AtomicBoolean aborted, AtomicReference<Throwable> failure) {
+        EmailDeduplicator deduplicator = new EmailDeduplicator(employeeRepository);
+        try {
+            List<ImportRow> chunk;
+            while ((chunk = take(in, aborted)) != END) {
+                for (ImportRow row : chunk) {
+                    validateRow(row);
+                }
+                rejectDuplicates(chunk, deduplicator);
+                put(out, chunk, aborted);
+            }
+        } catch (Throwable t) {
+            fail(t, aborted, failure);
+        } finally {
+            put(out, END, aborted);
+        }
+    }
+
+    private void insertStage(BlockingQueue<List<ImportRow>> in, AtomicBoolean aborted, ImportStats stats) {
+        List<ImportRow> chunk;
+        while ((chunk = take(in, aborted)) != END) {
+            List<ImportRow> accepted = new ArrayList<>(chunk.size());
+            for (ImportRow row : chunk) {
+                if (row.isRejected()) {
+                    stats.reject(row);
+                } else {
+                    accepted.add(row);
+                }
+            }
+            insertChunk(accepted, stats);
+        }
+    }
+
+    // ========== ROW HANDLING ==========
+
+    private void validateRow(ImportRow row) {
+        String firstName = row.value("firstname");
+        String lastName = row.value("lastname");
+        String email = row.value("email");
+
+        // Validate required fields
+        if (isBlank(firstName) || isBlank(lastName) || isBlank(email)) {
+            row.reject("First name, last name and email are required");
+            return;
+        }
+
+        Employee employee = new Employee();
+
+        // Map columns to Employee fields
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setEmail(email.toLowerCase());
+        employee.setDepartment(row.value("department"));
+        employee.setPosition(row.value("position"));
+
+        // Parse salary - a missing one defaults to 0, one that is there but unreadable rejects the row
+        String salary = row.value("salary");
+        if (isBlank(salary)) {
+            employee.setSalary(0.0);
+        } else {
+            try {
+                employee.setSalary(Double.parseDouble(salary));
+            } catch (NumberFormatException e) {
+                row.reject("Invalid salary: " + salary);
+                return;
+            }
+        }
+
+        // Set default values
+        String phone = row.value("phone");
+        employee.setPhoneNumber(phone != null ? phone : "");
+        employee.setCountryCode("+1");
+        employee.setVacationDays(20);
+        employee.setSickDays(10);
+        employee.setPersonalDays(5);
+        employee.setUsedVacation(0);
+        employee.setUsedSick(0);
+        employee.setUsedPersonal(0);
+
+        // Same defaults Employee.onCreate() applies when saved through JPA
+        LocalDateTime now = LocalDateTime.now();
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        employee.setHireDate(now);
+        if (!employee.getPhoneNumber().startsWith("+")) {
+            employee.setPhoneNumber(employee.getCountryCode() + employee.getPhoneNumber());
+        }
+
+        // Apply the entity's bean validation rules up front - JDBC inserts bypass them
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (!violations.isEmpty()) {
+            row.reject(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; ")));
+            return;
+        }
+
+        row.employee = employee;
+    }
+
+    private void rejectDuplicates(List<ImportRow> chunk, EmailDeduplicator deduplicator) {
+        List<ImportRow> candidates = chunk.stream()
+            .filter(row -> !row.isRejected())
+            .collect(Collectors.toList());
+        List<String> reasons = deduplicator.check(candidates.stream()
+            .map(row -> row.employee.getEmail())
+            .collect(Collectors.toList()));
+
+        for (int i = 0; i < candidates.size(); i++) {
+            if (reasons.get(i) != null) {
+                candidates.get(i).reject(reasons.get(i));
+            }
+        }
+    }
+
+    private void insertChunk(List<ImportRow> rows, ImportStats stats) {
+        if (rows.isEmpty()) return;
+
+        List<Employee> employees = rows.stream().map(r -> r.employee).collect(Collectors.toList());
+        try {
+            batchWriter.insertChunk(employees);
+            stats.inserted(rows.size());
+        } catch (RuntimeException e) {
+            // Something in the chunk failed - retry row by row to isolate the bad rows
+            employees = new ArrayList<>(rows.size());
+            for (ImportRow row : rows) {
+                try {
+                    batchWriter.insertOne(row.employee);
+                    employees.add(row.employee);
+                    stats.inserted(1);
+                } catch (RuntimeException rowError) {
+                    row.reject("Insert failed: " + rootMessage(rowError));
+                    stats.reject(row);
+                }
+            }
+        }
+
+        if (!employees.isEmpty()) {
+            eventPublisher.publishEvent(EmployeesChangedEvent.saved(employees));
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    // Stops every stage, so none is left blocked on a queue the others no longer drain
+    private void fail(Throwable t, AtomicBoolean aborted, AtomicReference<Throwable> failure) {
+        failure.compareAndSet(null, t);
+        aborted.set(true);
+    }
+
+    // Blocking put that gives up once the pipeline has been aborted
+    private void put(BlockingQueue<List<ImportRow>> queue, List<ImportRow> chunk, AtomicBoolean aborted) {
+        try {
+            while (!aborted.get()) {
+                if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted.set(true);
+        }
+    }
+
+    private List<ImportRow> take(BlockingQueue<List<ImportRow>> queue, AtomicBoolean aborted) {
+        try {
+            while (!aborted.get()) {
+                List<ImportRow> chunk = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (chunk != null) {
+                    return chunk;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted.set(true);
+        }
+        return END;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private String rootMessage(Throwable t) {
+        Throwable root = t;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    // Counters are only touched by the inserting thread
+    private static class ImportStats {
+        final ImportProgressListener listener;
+        long imported;
+        long rejected;
+        final List<ImportRowErrorDTO> errors = new ArrayList<>();
+
+        ImportStats(ImportProgressListener listener) {
+            this.listener = listener;
+        }
+
+        void inserted(int count) {
+            imported += count;
+            listener.rowsInserted(count);
+        }
+
+        void reject(ImportRow row) {
+            rejected++;
+            ImportRowErrorDTO error = ImportRowErrorDTO.builder()
+                .rowNumber(row.rowNumber)
+                .email(row.value("email"))
+                .reason(row.rejection)
+                .build();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+            listener.rowRejected(error);
+        }
+    }
+}
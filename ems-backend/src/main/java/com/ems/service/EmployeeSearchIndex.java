@@ -0,0 +1,293 @@
+package com.ems.service;
+
+import com.ems.entity.Employee;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Lucene inverted index over firstName, lastName, email, department and position. Replaces
+ * the LOWER(col) LIKE '%term%' scans for free-text search: every search term must match one
+ * of the fields exactly, by prefix or (for longer terms) within one edit, and results come
+ * back in relevance order.
+ *
+ * The index lives in a local directory, is rebuilt from the database when the application is
+ * ready and then kept in sync from EmployeesChangedEvent. Until the rebuild has finished
+ * search() returns null and callers fall back to the database.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private static final String ID = "id";
+    private static final String DEPARTMENT_EXACT = "department_exact";
+    private static final String POSITION_EXACT = "position_exact";
+    private static final String SALARY = "salary";
+    private static final String[] TEXT_FIELDS = {"firstName", "lastName", "email", "department", "position"};
+
+    // Shorter terms and terms with digits (ids, numbered codes) only get exact and prefix
+    // matching - fuzzy matches on them are mostly noise
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Leading characters a fuzzy match must share - keeps fuzzy expansion cheap
+    private static final int FUZZY_PREFIX_LENGTH = 1;
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    @Value("${app.search.index-dir:${java.io.tmpdir}/ems-search-index}")
+    private String indexDir;
+
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready;
+
+    @Autowired
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            if (writer == null) {
+                Path dir = Paths.get(indexDir);
+                Files.createDirectories(dir);
+                writer = new IndexWriter(FSDirectory.open(dir), new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+                searcherManager = new SearcherManager(writer, null);
+            }
+
+            writer.deleteAll();
+            long[] count = {0};
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = employeeRepository.streamSearchFields()) {
+                    rows.forEach(row -> {
+                        addOrUpdate((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                            (String) row[4], (String) row[5], (Double) row[6]);
+                        count[0]++;
+                    });
+                }
+            });
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+            ready = true;
+
+            System.out.println("🔎 Search index rebuilt: " + count[0] + " employees in "
+                + (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            ready = false;
+            System.err.println("❌ Search index rebuild failed, searches will use the database: " + e.getMessage());
+        }
+    }
+
+    // Runs after commit; events published outside a transaction are applied immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        if (writer == null) return;
+        try {
+            for (Employee e : event.getSaved()) {
+                addOrUpdate(e.getId(), e.getFirstName(), e.getLastName(), e.getEmail(),
+                    e.getDepartment(), e.getPosition(), e.getSalary());
+            }
+            for (Long id : event.getDeletedIds()) {
+                writer.deleteDocuments(new Term(ID, String.valueOf(id)));
+            }
+            // Near-real-time reopen - changes are searchable without a commit
+            searcherManager.maybeRefresh();
+        } catch (IOException | UncheckedIOException e) {
+            // The index no longer matches the database - stop serving it until the next rebuild
+            ready = false;
+            System.err.println("❌ Search index update failed, searches will use the database: " + e.getMessage());
+        }
+    }
+
+    // Commits are only needed for durability of the on-disk index, not for visibility
+    @Scheduled(fixedDelayString = "${app.search.commit-interval-ms:30000}")
+    public synchronized void commit() {
+        if (writer == null || !writer.hasUncommittedChanges()) return;
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            System.err.println("⚠️  Search index commit failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        ready = false;
+        if (searcherManager != null) searcherManager.close();
+        if (writer != null) writer.close();
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Returns one page of matching employee ids in relevance order, or null when the index
+     * is not available or the text has no searchable terms. Department and position are
+     * exact filters, salary an inclusive range.
+     */
+    public Page<Long> search(String text, String department, String position,
+                             Double minSalary, Double maxSalary, Pageable pageable) {
+        if (!ready) return null;
+
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) return null;
+
+        Query query = buildQuery(terms, department, position, minSalary, maxSalary);
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            int total = searcher.count(query);
+            int end = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+            TopDocs top = searcher.search(query, Math.max(end, 1));
+
+            List<Long> ids = new ArrayList<>(pageable.getPageSize());
+            ScoreDoc[] hits = top.scoreDocs;
+            for (int i = (int) pageable.getOffset(); i < hits.length; i++) {
+                ids.add(Long.valueOf(searcher.storedFields().document(hits[i].doc).get(ID)));
+            }
+            return new PageImpl<>(ids, pageable, total);
+        } catch (IOException e) {
+            System.err.println("❌ Search index query failed: " + e.getMessage());
+            return null;
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    // Nothing to recover - the searcher is closed with the manager
+                }
+            }
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void addOrUpdate(Long id, String firstName, String lastName, String email,
+                             String department, String position, Double salary) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, String.valueOf(id), Field.Store.YES));
+        addText(doc, "firstName", firstName);
+        addText(doc, "lastName", lastName);
+        addText(doc, "email", email);
+        addText(doc, "department", department);
+        addText(doc, "position", position);
+        if (department != null) doc.add(new StringField(DEPARTMENT_EXACT, department, Field.Store.NO));
+        if (position != null) doc.add(new StringField(POSITION_EXACT, position, Field.Store.NO));
+        if (salary != null) doc.add(new DoublePoint(SALARY, salary));
+
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(id)), doc);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addText(Document doc, String field, String value) {
+        if (value != null) {
+            doc.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private Query buildQuery(List<String> terms, String department, String position,
+                             Double minSalary, Double maxSalary) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+
+        // Every term has to match some field; exact hits rank above prefix and fuzzy ones
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (String field : TEXT_FIELDS) {
+                Term t = new Term(field, term);
+                anyField.add(new BoostQuery(new TermQuery(t), 3f), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(t), 2f), BooleanClause.Occur.SHOULD);
+                if (isFuzzyCandidate(term)) {
+                    anyField.add(new FuzzyQuery(t, 1, FUZZY_PREFIX_LENGTH), BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        if (department != null) {
+            query.add(new TermQuery(new Term(DEPARTMENT_EXACT, department)), BooleanClause.Occur.FILTER);
+        }
+        if (position != null) {
+            query.add(new TermQuery(new Term(POSITION_EXACT, position)), BooleanClause.Occur.FILTER);
+        }
+        if (minSalary != null || maxSalary != null) {
+            query.add(DoublePoint.newRangeQuery(SALARY,
+                minSalary != null ? minSalary : Double.NEGATIVE_INFINITY,
+                maxSalary != null ? maxSalary : Double.POSITIVE_INFINITY), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    private boolean isFuzzyCandidate(String term) {
+        return term.length() >= MIN_FUZZY_LENGTH && term.chars().noneMatch(Character::isDigit);
+    }
+
+    // Splits the search text the same way the indexed fields were tokenized
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream("search", text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(term.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+}
@@ -1,16 +1,25 @@
 package com.ems.service;
 
+import com.ems.dto.DepartmentStatsDTO;
 import com.ems.dto.EmployeeDTO;
+import com.ems.dto.EmployeeSuggestionDTO;
+import com.ems.dto.ImportResultDTO;
+import com.ems.dto.ImportRowErrorDTO;
 import com.ems.entity.Employee;
+import com.ems.event.EmployeesChangedEvent;
 import com.ems.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,6 +31,21 @@ public class EmployeeService {
     
     @Autowired
     private CSVImportService csvImportService;
+    
+    @Autowired
+    private ExcelImportService excelImportService;
+    
+    @Autowired
+    private EmployeeStatsAggregator statsAggregator;
+    
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+    
+    @Autowired
+    private EmployeeSuggestIndex suggestIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     // ========== UPDATED CONVERSION METHODS ==========
     
@@ -72,63 +96,97 @@ public class EmployeeService {
     
     // ========== EXISTING METHODS (WITH MINOR UPDATES) ==========
     
+    // Rows whose email is already taken (or repeated in the request) are reported in
+    // rejected instead of failing the whole batch
     @Transactional
-    public List<Employee> createEmployeesBulk(List<EmployeeDTO> employeeDTOs) {
-        List<Employee> employees = employeeDTOs.stream()
-            .map(dto -> {
-                Employee employee = convertToEntity(dto);
-                // Ensure defaults for any null values
-                if (employee.getVacationDays() == null) employee.setVacationDays(20);
-                if (employee.getSickDays() == null) employee.setSickDays(10);
-                if (employee.getPersonalDays() == null) employee.setPersonalDays(5);
-                if (employee.getUsedVacation() == null) employee.setUsedVacation(0);
-                if (employee.getUsedSick() == null) employee.setUsedSick(0);
-                if (employee.getUsedPersonal() == null) employee.setUsedPersonal(0);
-                return employee;
-            })
-            .collect(Collectors.toList());
+    public List<Employee> createEmployeesBulk(List<EmployeeDTO> employeeDTOs, List<ImportRowErrorDTO> rejected) {
+        List<String> reasons = new EmailDeduplicator(employeeRepository).check(employeeDTOs.stream()
+            .map(EmployeeDTO::getEmail)
+            .collect(Collectors.toList()));
+        
+        List<Employee> employees = new ArrayList<>(employeeDTOs.size());
+        for (int i = 0; i < employeeDTOs.size(); i++) {
+            EmployeeDTO dto = employeeDTOs.get(i);
+            if (reasons.get(i) != null) {
+                rejected.add(ImportRowErrorDTO.builder()
+                    .rowNumber((long) i + 1)
+                    .email(dto.getEmail())
+                    .reason(reasons.get(i))
+                    .build());
+                continue;
+            }
+            
+            Employee employee = convertToEntity(dto);
+            // Stored the way EmailDeduplicator compares them, like the file imports do
+            if (employee.getEmail() != null) employee.setEmail(employee.getEmail().trim().toLowerCase());
+            // Ensure defaults for any null values
+            if (employee.getVacationDays() == null) employee.setVacationDays(20);
+            if (employee.getSickDays() == null) employee.setSickDays(10);
+            if (employee.getPersonalDays() == null) employee.setPersonalDays(5);
+            if (employee.getUsedVacation() == null) employee.setUsedVacation(0);
+            if (employee.getUsedSick() == null) employee.setUsedSick(0);
+            if (employee.getUsedPersonal() == null) employee.setUsedPersonal(0);
+            employees.add(employee);
+        }
         
-        return employeeRepository.saveAll(employees);
+        List<Employee> saved = employeeRepository.saveAll(employees);
+        eventPublisher.publishEvent(EmployeesChangedEvent.saved(saved));
+        return saved;
     }
 
     @Transactional
     public int deleteEmployeesBulk(List<Long> employeeIds) {
-        int deleted = 0;
+        List<Long> deleted = new ArrayList<>();
         for (Long id : employeeIds) {
             try {
                 employeeRepository.deleteById(id);
-                deleted++;
+                deleted.add(id);
             } catch (Exception e) {
                 System.err.println("Error deleting employee " + id + ": " + e.getMessage());
                 // Continue with other deletions
             }
         }
-        return deleted;
+        eventPublisher.publishEvent(EmployeesChangedEvent.deleted(deleted));
+        return deleted.size();
     }
 
     @Transactional
     public int updateDepartmentBulk(List<Long> employeeIds, String department) {
-        int updated = 0;
+        List<Employee> updated = new ArrayList<>();
         for (Long id : employeeIds) {
             Employee employee = employeeRepository.findById(id).orElse(null);
             if (employee != null) {
                 employee.setDepartment(department);
-                employeeRepository.save(employee);
-                updated++;
+                updated.add(employeeRepository.save(employee));
             }
         }
-        return updated;
+        eventPublisher.publishEvent(EmployeesChangedEvent.saved(updated));
+        return updated.size();
     }
 
-    public List<Employee> importFromCSV(MultipartFile file) throws Exception {
+    public ImportResultDTO importFromCSV(MultipartFile file) throws Exception {
         return csvImportService.importEmployeesFromCSV(file);
     }
 
+    public ImportResultDTO importFromExcel(MultipartFile file) throws Exception {
+        return excelImportService.importEmployeesFromExcel(file);
+    }
+
     public Page<Employee> getAllEmployees(int page, int size, String search, 
                                          String department, String position, 
                                          Double minSalary, Double maxSalary) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("firstName").ascending());
         
+        // Free-text searches go to the search index, ordered by relevance
+        if (search != null && !search.trim().isEmpty()) {
+            Page<Long> ids = searchIndex.search(search.trim(), department, position, minSalary, maxSalary,
+                PageRequest.of(page, size));
+            if (ids != null) {
+                return loadInOrder(ids);
+            }
+            // Index not available - fall through to the database queries
+        }
+        
         // Use advanced search if any advanced filters are provided
         if (department != null || position != null || minSalary != null || maxSalary != null) {
             return employeeRepository.advancedSearch(search, department, position, minSalary, maxSalary, pageable);
@@ -141,6 +199,76 @@ public class EmployeeService {
         }
     }
 
+    // Typeahead suggestions - served from memory, never from the database
+    public List<EmployeeSuggestionDTO> suggestEmployees(String query, int limit) {
+        return suggestIndex.suggest(query, limit);
+    }
+
+    // Fetches the employees for one page of index hits, keeping the relevance order
+    private Page<Employee> loadInOrder(Page<Long> ids) {
+        Map<Long, Employee> byId = employeeRepository.findAllById(ids.getContent()).stream()
+            .collect(Collectors.toMap(Employee::getId, e -> e));
+        List<Employee> content = ids.getContent().stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    // ========== KEYSET PAGINATION ==========
+    
+    // Seeks past the last (firstName, id) of the previous page instead of using OFFSET, so
+    // page 5000 costs the same as page 1. A null or empty cursor starts at the beginning.
+    public Slice<Employee> getEmployeesAfter(String cursor, int size, String search,
+                                             String department, String position,
+                                             Double minSalary, Double maxSalary) {
+        Pageable pageable = PageRequest.of(0, size);
+        String term = search != null && !search.trim().isEmpty() ? search.trim() : null;
+        
+        if (cursor == null || cursor.isEmpty()) {
+            return employeeRepository.findFirstKeysetPage(term, department, position, minSalary, maxSalary, pageable);
+        }
+        
+        String[] seek = decodeCursor(cursor);
+        return employeeRepository.findKeysetPageAfter(seek[1], Long.valueOf(seek[0]),
+            term, department, position, minSalary, maxSalary, pageable);
+    }
+    
+    // Opaque continuation token - base64 of "id:firstName" of the last row on the page
+    public String encodeCursor(Employee last) {
+        String raw = last.getId() + ":" + last.getFirstName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            Long.parseLong(raw.substring(0, separator));
+            return new String[] { raw.substring(0, separator), raw.substring(separator + 1) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    // Total without a COUNT query - exact from the in-memory aggregates when the only
+    // filter is a department, otherwise unknown (null)
+    public Long getApproximateTotal(String search, String department, String position,
+                                    Double minSalary, Double maxSalary) {
+        boolean hasSearch = search != null && !search.trim().isEmpty();
+        if (hasSearch || position != null || minSalary != null || maxSalary != null) {
+            return null;
+        }
+        if (department == null) {
+            return statsAggregator.getGlobalStats().getHeadcount();
+        }
+        return statsAggregator.getDepartmentStats().stream()
+            .filter(d -> department.equals(d.getDepartment()))
+            .map(DepartmentStatsDTO::getHeadcount)
+            .findFirst()
+            .orElse(0L);
+    }
+
     // Keep the old method for backward compatibility (optional)
     public Page<Employee> getAllEmployees(int page, int size, String search) {
         return getAllEmployees(page, size, search, null, null, null, null);
@@ -174,7 +302,9 @@ public class EmployeeService {
         if (employee.getUsedSick() == null) employee.setUsedSick(0);
         if (employee.getUsedPersonal() == null) employee.setUsedPersonal(0);
         
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        eventPublisher.publishEvent(EmployeesChangedEvent.saved(saved));
+        return saved;
     }
 
     public void deleteEmployee(Long id) {
@@ -182,6 +312,7 @@ public class EmployeeService {
             throw new RuntimeException("Employee not found with id: " + id);
         }
         employeeRepository.deleteById(id);
+        eventPublisher.publishEvent(EmployeesChangedEvent.deleted(id));
     }
 
     public List<String> getDistinctDepartments() {
@@ -268,48 +399,69 @@ public class EmployeeService {
         return employeeRepository.existsByEmail(email);
     }
 
+    // ========== AGGREGATE STATISTICS ==========
+    
+    // All statistics are read from EmployeeStatsAggregator - no table scans per request
+    
     public Map<String, Object> getEmployeeStatistics() {
         Map<String, Object> stats = new HashMap<>();
+        DepartmentStatsDTO global = statsAggregator.getGlobalStats();
         
-        try {
-            long totalEmployees = employeeRepository.count();
-            List<String> departments = getDistinctDepartments();
-            long totalDepartments = departments != null ? departments.size() : 0;
-            
-            stats.put("totalEmployees", totalEmployees);
-            stats.put("totalDepartments", totalDepartments);
+        stats.put("totalEmployees", global.getHeadcount());
+        stats.put("totalDepartments", statsAggregator.getDepartmentCount());
+        
+        if (global.getHeadcount() > 0) {
+            stats.put("averageSalary", String.format("%.2f", averageOverHeadcount(global)));
+            stats.put("minSalary", String.format("%.2f", valueOrZero(global.getMinSalary())));
+            stats.put("maxSalary", String.format("%.2f", valueOrZero(global.getMaxSalary())));
+            stats.put("totalSalaryExpense", String.format("%.2f", valueOrZero(global.getTotalSalary())));
+        }
+        
+        return stats;
+    }
+    
+    public Map<String, Object> getSalaryStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        DepartmentStatsDTO global = statsAggregator.getGlobalStats();
+        
+        if (global.getHeadcount() > 0) {
+            stats.put("averageSalary", String.format("%.2f", averageOverHeadcount(global)));
+            stats.put("minSalary", String.format("%.2f", valueOrZero(global.getMinSalary())));
+            stats.put("maxSalary", String.format("%.2f", valueOrZero(global.getMaxSalary())));
+            stats.put("totalSalary", String.format("%.2f", valueOrZero(global.getTotalSalary())));
             
-            List<Employee> allEmployees = employeeRepository.findAll();
-            if (!allEmployees.isEmpty()) {
-                double totalSalary = allEmployees.stream()
-                    .filter(e -> e.getSalary() != null)
-                    .mapToDouble(Employee::getSalary)
-                    .sum();
-                double avgSalary = totalSalary / allEmployees.size();
-                double minSalary = allEmployees.stream()
-                    .filter(e -> e.getSalary() != null)
-                    .mapToDouble(Employee::getSalary)
-                    .min()
-                    .orElse(0.0);
-                double maxSalary = allEmployees.stream()
-                    .filter(e -> e.getSalary() != null)
-                    .mapToDouble(Employee::getSalary)
-                    .max()
-                    .orElse(0.0);
-                
-                stats.put("averageSalary", String.format("%.2f", avgSalary));
-                stats.put("minSalary", String.format("%.2f", minSalary));
-                stats.put("maxSalary", String.format("%.2f", maxSalary));
-                stats.put("totalSalaryExpense", String.format("%.2f", totalSalary));
+            Map<String, Double> deptAverages = new HashMap<>();
+            for (DepartmentStatsDTO dept : statsAggregator.getDepartmentStats()) {
+                deptAverages.put(dept.getDepartment(), valueOrZero(dept.getAverageSalary()));
             }
-            
-        } catch (Exception e) {
-            System.err.println("Error calculating statistics: " + e.getMessage());
-            stats.put("error", "Failed to calculate statistics");
+            stats.put("departmentAverages", deptAverages);
+        }
+        
+        return stats;
+    }
+    
+    public Map<String, Object> getDepartmentStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        List<DepartmentStatsDTO> departments = statsAggregator.getDepartmentStats();
+        stats.put("totalDepartments", departments.size());
+        
+        Map<String, Long> employeeCountByDepartment = new HashMap<>();
+        for (DepartmentStatsDTO dept : departments) {
+            employeeCountByDepartment.put(dept.getDepartment(), dept.getHeadcount());
         }
+        stats.put("employeeCountByDepartment", employeeCountByDepartment);
         
         return stats;
     }
+    
+    // The dashboard has always divided total salary by headcount, including employees without a salary
+    private double averageOverHeadcount(DepartmentStatsDTO stats) {
+        return valueOrZero(stats.getTotalSalary()) / stats.getHeadcount();
+    }
+    
+    private double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
 
     public long getDepartmentCount() {
         List<String> departments = getDistinctDepartments();
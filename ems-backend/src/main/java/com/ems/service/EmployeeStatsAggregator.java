@@ -0,0 +1,227 @@
+package com.ems.service;
+
+import com.ems.dto.DepartmentStatsDTO;
+import com.ems.entity.Employee;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Headcount and salary aggregates kept in memory. Built once from the database when the
+ * application is ready, then updated from EmployeesChangedEvent after each commit, so the
+ * stats endpoints never scan the employees table.
+ *
+ * Salaries are held in sorted multisets (salary -> occurrences) per department so that
+ * min/max stay correct when the current extreme is deleted. The last known department and
+ * salary of every employee is kept by id, which makes updates and repeated events idempotent.
+ *
+ * Until the first build completes, reads are answered by the aggregate queries
+ * EmployeeRepository.getDepartmentStatistics and getCompanyStatistics instead. The same
+ * queries are used nightly to check the aggregates, which are rebuilt if they have drifted
+ * (writes made outside this application publish no events).
+ */
+@Component
+public class EmployeeStatsAggregator {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final Map<Long, Snapshot> employees = new HashMap<>();
+    private final Map<String, Totals> departments = new HashMap<>();
+    private final Totals global = new Totals();
+    private volatile boolean ready;
+
+    @Autowired
+    public EmployeeStatsAggregator(EmployeeRepository employeeRepository) {
+        this.employeeRepository = employeeRepository;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        employees.clear();
+        departments.clear();
+        global.clear();
+
+        for (Object[] row : employeeRepository.findAllDepartmentAndSalary()) {
+            add((Long) row[0], new Snapshot((String) row[1], (Double) row[2]));
+        }
+        ready = true;
+        System.out.println("📊 Employee statistics rebuilt: " + global.headcount + " employees, "
+            + departments.size() + " departments");
+    }
+
+    // Runs after commit; events published outside a transaction are applied immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        for (Employee employee : event.getSaved()) {
+            remove(employee.getId());
+            add(employee.getId(), new Snapshot(employee.getDepartment(), employee.getSalary()));
+        }
+        for (Long id : event.getDeletedIds()) {
+            remove(id);
+        }
+    }
+
+    // Returns true when the aggregates agreed with the database
+    @Scheduled(cron = "${app.stats.verify-cron:0 35 0 * * *}")
+    public synchronized boolean verify() {
+        if (!ready) return true;
+
+        List<DepartmentStatsDTO> expected = withDepartment(employeeRepository.getDepartmentStatistics());
+        boolean matches = sameFigures(global.toDTO(null), employeeRepository.getCompanyStatistics())
+            && expected.size() == departments.size();
+        for (int i = 0; matches && i < expected.size(); i++) {
+            Totals totals = departments.get(expected.get(i).getDepartment());
+            matches = totals != null && sameFigures(totals.toDTO(expected.get(i).getDepartment()), expected.get(i));
+        }
+
+        if (!matches) {
+            System.err.println("⚠️ Employee statistics drifted from the database - rebuilding");
+            rebuild();
+        }
+        return matches;
+    }
+
+    // ========== READS ==========
+
+    // Whole-company figures - department is null
+    public DepartmentStatsDTO getGlobalStats() {
+        if (!ready) return employeeRepository.getCompanyStatistics();
+        synchronized (this) {
+            return global.toDTO(null);
+        }
+    }
+
+    public List<DepartmentStatsDTO> getDepartmentStats() {
+        if (!ready) return withDepartment(employeeRepository.getDepartmentStatistics());
+        synchronized (this) {
+            List<DepartmentStatsDTO> stats = new ArrayList<>(departments.size());
+            new TreeMap<>(departments).forEach((name, totals) -> stats.add(totals.toDTO(name)));
+            return stats;
+        }
+    }
+
+    public int getDepartmentCount() {
+        if (!ready) return getDepartmentStats().size();
+        synchronized (this) {
+            return departments.size();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    // The GROUP BY rows without the one for employees that have no department
+    private static List<DepartmentStatsDTO> withDepartment(List<DepartmentStatsDTO> rows) {
+        List<DepartmentStatsDTO> stats = new ArrayList<>(rows.size());
+        for (DepartmentStatsDTO row : rows) {
+            if (row.getDepartment() != null) stats.add(row);
+        }
+        return stats;
+    }
+
+    // Sums are compared with a tolerance - the running total collects rounding errors
+    private static boolean sameFigures(DepartmentStatsDTO actual, DepartmentStatsDTO expected) {
+        return actual.getHeadcount().equals(expected.getHeadcount())
+            && close(actual.getTotalSalary(), expected.getTotalSalary())
+            && Objects.equals(actual.getMinSalary(), expected.getMinSalary())
+            && Objects.equals(actual.getMaxSalary(), expected.getMaxSalary())
+            && close(actual.getAverageSalary(), expected.getAverageSalary());
+    }
+
+    private static boolean close(Double actual, Double expected) {
+        if (actual == null || expected == null) return actual == expected;
+        return Math.abs(actual - expected) < 0.01;
+    }
+
+    private void add(Long id, Snapshot snapshot) {
+        employees.put(id, snapshot);
+        global.add(snapshot.salary);
+        if (snapshot.department != null) {
+            departments.computeIfAbsent(snapshot.department, d -> new Totals()).add(snapshot.salary);
+        }
+    }
+
+    private void remove(Long id) {
+        Snapshot snapshot = employees.remove(id);
+        if (snapshot == null) return;
+
+        global.remove(snapshot.salary);
+        if (snapshot.department != null) {
+            Totals totals = departments.get(snapshot.department);
+            if (totals != null) {
+                totals.remove(snapshot.salary);
+                if (totals.headcount == 0) {
+                    departments.remove(snapshot.department);
+                }
+            }
+        }
+    }
+
+    private static class Snapshot {
+        final String department;
+        final Double salary;
+
+        Snapshot(String department, Double salary) {
+            this.department = department;
+            this.salary = salary;
+        }
+    }
+
+    // Same semantics as SQL: headcount counts everyone, salary figures skip nulls
+    private static class Totals {
+        long headcount;
+        long salaryCount;
+        double totalSalary;
+        final TreeMap<Double, Integer> salaries = new TreeMap<>();
+
+        void add(Double salary) {
+            headcount++;
+            if (salary != null) {
+                salaryCount++;
+                totalSalary += salary;
+                salaries.merge(salary, 1, Integer::sum);
+            }
+        }
+
+        void remove(Double salary) {
+            headcount--;
+            if (salary != null) {
+                salaryCount--;
+                totalSalary -= salary;
+                salaries.computeIfPresent(salary, (s, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+
+        void clear() {
+            headcount = 0;
+            salaryCount = 0;
+            totalSalary = 0;
+            salaries.clear();
+        }
+
+        DepartmentStatsDTO toDTO(String department) {
+            boolean hasSalaries = salaryCount > 0;
+            return DepartmentStatsDTO.builder()
+                .department(department)
+                .headcount(headcount)
+                .totalSalary(hasSalaries ? totalSalary : null)
+                .minSalary(hasSalaries ? salaries.firstKey() : null)
+                .maxSalary(hasSalaries ? salaries.lastKey() : null)
+                .averageSalary(hasSalaries ? totalSalary / salaryCount : null)
+                .build();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.ems.service;
+
+import com.ems.dto.EmployeeSuggestionDTO;
+import com.ems.entity.Employee;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.repository.EmployeeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index for name/email autocomplete. Keys are lower-cased first name,
+ * last name, "first last" and email; a prefix lookup is a sorted-map range scan that stops
+ * after limit distinct employees, so a suggestion never touches the database.
+ *
+ * Built when the application is ready and updated from EmployeesChangedEvent.
+ */
+@Component
+public class EmployeeSuggestIndex {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final EmployeeRepository employeeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // key -> ids of employees with that key, and the suggestion shown for each id
+    private final TreeMap<String, Set<Long>> keys = new TreeMap<>();
+    private final Map<Long, EmployeeSuggestionDTO> suggestions = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public EmployeeSuggestIndex(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            keys.clear();
+            suggestions.clear();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = employeeRepository.streamSearchFields()) {
+                    rows.forEach(row -> add(EmployeeSuggestionDTO.builder()
+                        .id((Long) row[0])
+                        .firstName((String) row[1])
+                        .lastName((String) row[2])
+                        .email((String) row[3])
+                        .department((String) row[4])
+                        .build()));
+                }
+            });
+            System.out.println("💡 Suggest index rebuilt: " + suggestions.size() + " employees, " + keys.size()
+                + " keys in " + (System.currentTimeMillis() - started) + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Runs after commit; events published outside a transaction are applied immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Employee e : event.getSaved()) {
+                remove(e.getId());
+                add(EmployeeSuggestionDTO.builder()
+                    .id(e.getId())
+                    .firstName(e.getFirstName())
+                    .lastName(e.getLastName())
+                    .email(e.getEmail())
+                    .department(e.getDepartment())
+                    .build());
+            }
+            for (Long id : event.getDeletedIds()) {
+                remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== LOOKUP ==========
+
+    /**
+     * Up to limit employees with a key starting with the query, best matches first: an exact
+     * first name, last name, full name or email, then first names starting with the query, then
+     * the remaining prefix matches. Each group is in key order. The scan stops once limit exact
+     * and first-name matches are found. Results are copies - the index's own entries never leave it.
+     */
+    public List<EmployeeSuggestionDTO> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int max = Math.min(limit, MAX_LIMIT);
+        Set<Long> exact = new LinkedHashSet<>();
+        Set<Long> firstName = new LinkedHashSet<>();
+        Set<Long> other = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            exact.addAll(keys.getOrDefault(prefix, Collections.emptySet()));
+            NavigableMap<String, Set<Long>> range = keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            scan:
+            for (Set<Long> matches : range.values()) {
+                for (Long id : matches) {
+                    if (exact.size() + firstName.size() >= max) break scan;
+                    if (exact.contains(id)) continue;
+
+                    String first = normalize(suggestions.get(id).getFirstName());
+                    if (first != null && first.startsWith(prefix)) {
+                        other.remove(id);
+                        firstName.add(id);
+                    } else if (!firstName.contains(id) && other.size() < max) {
+                        other.add(id);
+                    }
+                }
+            }
+
+            List<EmployeeSuggestionDTO> result = new ArrayList<>(max);
+            for (Set<Long> group : List.of(exact, firstName, other)) {
+                for (Long id : group) {
+                    if (result.size() >= max) return result;
+                    result.add(suggestions.get(id).toBuilder().build());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    // Callers hold the write lock
+    private void add(EmployeeSuggestionDTO suggestion) {
+        suggestions.put(suggestion.getId(), suggestion);
+        for (String key : keysFor(suggestion)) {
+            keys.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(suggestion.getId());
+        }
+    }
+
+    private void remove(Long id) {
+        EmployeeSuggestionDTO previous = suggestions.remove(id);
+        if (previous == null) return;
+
+        for (String key : keysFor(previous)) {
+            Set<Long> ids = keys.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    keys.remove(key);
+                }
+            }
+        }
+    }
+
+    private Set<String> keysFor(EmployeeSuggestionDTO s) {
+        Set<String> result = new LinkedHashSet<>();
+        addKey(result, s.getFirstName());
+        addKey(result, s.getLastName());
+        if (s.getFirstName() != null && s.getLastName() != null) {
+            addKey(result, s.getFirstName() + " " + s.getLastName());
+        }
+        addKey(result, s.getEmail());
+        return result;
+    }
+
+    private void addKey(Set<String> result, String value) {
+        String key = normalize(value);
+        if (key != null && !key.isEmpty()) {
+            result.add(key);
+        }
+    }
+
+    private String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+}
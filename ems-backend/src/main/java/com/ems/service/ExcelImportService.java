@@ -0,0 +1,127 @@
+package com.ems.service;
+
+import com.ems.dto.ImportResultDTO;
+import lombok.RequiredArgsConstructor;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads .xlsx imports with POI's event (SAX) API instead of XSSFWorkbook, so only the
+ * current row is held in memory. Rows are fed into the same pipeline as CSV imports.
+ * Only the first sheet is read; its first row must contain the column headers.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExcelImportService {
+
+    private final EmployeeImportPipeline importPipeline;
+
+    public ImportResultDTO importEmployeesFromExcel(MultipartFile file) throws Exception {
+        // OPCPackage needs random access to the zip - opening from a stream would buffer it all
+        Path temp = Files.createTempFile("ems-import-", ".xlsx");
+        try {
+            file.transferTo(temp);
+            return importEmployeesFromExcel(temp, ImportProgressListener.NONE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public ImportResultDTO importEmployeesFromExcel(Path file, ImportProgressListener listener) {
+        return importPipeline.run(sink -> {
+            try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
+
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    throw new IllegalArgumentException("Workbook contains no sheets");
+                }
+
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(
+                        styles, null, strings, new RowCollector(sink), new RawNumberFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        }, listener);
+    }
+
+    // Numbers reach the pipeline unformatted - a "#,##0.00" salary would otherwise arrive as
+    // "50,000.00" and fail to parse. Dates keep their display format.
+    private static class RawNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString)) {
+                return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+            }
+            return NumberToTextConverter.toText(value);
+        }
+    }
+
+    // Turns SAX cell callbacks into ImportRows keyed by the lower-cased header row
+    private static class RowCollector implements SheetContentsHandler {
+        private final Consumer<ImportRow> sink;
+        private final List<String> headers = new ArrayList<>();
+        private Map<String, String> values;
+        private boolean headerRow;
+
+        RowCollector(Consumer<ImportRow> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            headerRow = headers.isEmpty();
+            values = new HashMap<>();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (headerRow) {
+                while (headers.size() <= column) {
+                    headers.add(null);
+                }
+                headers.set(column, formattedValue == null ? null : formattedValue.trim().toLowerCase());
+            } else if (column < headers.size() && headers.get(column) != null) {
+                values.put(headers.get(column), formattedValue);
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // Blank rows are skipped; Excel rows are 1-based, POI's are 0-based
+            if (!headerRow && !values.isEmpty()) {
+                sink.accept(new ImportRow(rowNum + 1, values));
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.ems.service;
+
+import com.ems.dto.ExportFilter;
+import com.ems.dto.ExportJobDTO;
+import com.ems.dto.JobStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ExportJobService {
+
+    private final ExportService exportService;
+    private final ThreadPoolTaskExecutor exportJobExecutor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.export.jobs.dir:${java.io.tmpdir}/ems-exports}")
+    private String jobsDir;
+
+    @Value("${app.export.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Autowired
+    public ExportJobService(ExportService exportService,
+                            @Qualifier("exportJobExecutor") ThreadPoolTaskExecutor exportJobExecutor) {
+        this.exportService = exportService;
+        this.exportJobExecutor = exportJobExecutor;
+    }
+
+    // ========== JOB LIFECYCLE ==========
+
+    public ExportJobDTO submitJob(String format, ExportFilter filter) {
+        String normalizedFormat = normalizeFormat(format);
+        String filename = exportService.generateFilename(filter, extensionFor(normalizedFormat));
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), normalizedFormat, filename, filter);
+        jobs.put(job.id, job);
+
+        try {
+            exportJobExecutor.execute(() -> runJob(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new RuntimeException("Export queue is full, please try again later");
+        }
+
+        System.out.println("📦 Export job " + job.id + " queued (" + normalizedFormat + ")");
+        return toDTO(job);
+    }
+
+    public ExportJobDTO getJob(String id) {
+        return toDTO(findJob(id));
+    }
+
+    // Returns the spooled file of a completed job
+    public Path getJobFile(String id) {
+        ExportJob job = findJob(id);
+        if (job.status != JobStatus.COMPLETED) {
+            throw new IllegalStateException("Export job is not completed yet: " + job.status);
+        }
+        return job.file;
+    }
+
+    public String getJobFilename(String id) {
+        return findJob(id).filename;
+    }
+
+    private void runJob(ExportJob job) {
+        job.status = JobStatus.RUNNING;
+        try {
+            Path dir = Paths.get(jobsDir);
+            Files.createDirectories(dir);
+            job.file = dir.resolve(job.id + extensionFor(job.format));
+            job.totalRows = exportService.countEmployees(job.filter);
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(job.file))) {
+                if (job.format.equals("excel")) {
+                    exportService.writeEmployeesToExcel(out, job.filter, job.rowsWritten::set);
+                } else if (job.format.equals("json") || job.format.equals("ndjson")) {
+                    exportService.writeEmployeesToJson(out, job.filter, job.format.equals("ndjson"), job.rowsWritten::set);
+                } else {
+                    exportService.writeEmployeesToCSV(out, job.filter, job.rowsWritten::set);
+                }
+            }
+
+            job.completedAt = LocalDateTime.now();
+            job.status = JobStatus.COMPLETED;
+            System.out.println("✅ Export job " + job.id + " completed: " + job.rowsWritten.get() + " rows");
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.status = JobStatus.FAILED;
+            deleteQuietly(job.file);
+            System.err.println("❌ Export job " + job.id + " failed: " + e.getMessage());
+        }
+    }
+
+    // Drop finished jobs and their files once the retention period has passed
+    @Scheduled(fixedDelayString = "${app.export.jobs.cleanup-interval-ms:600000}")
+    public void cleanupExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.completedAt != null && job.completedAt.isBefore(cutoff);
+            if (expired) {
+                deleteQuietly(job.file);
+            }
+            return expired;
+        });
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private ExportJob findJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Export job not found: " + id);
+        }
+        return job;
+    }
+
+    private String normalizeFormat(String format) {
+        String value = format == null ? "csv" : format.toLowerCase();
+        if (!value.equals("csv") && !value.equals("excel") && !value.equals("json") && !value.equals("ndjson")) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        return value;
+    }
+
+    private String extensionFor(String format) {
+        switch (format) {
+            case "excel":
+                return ".xlsx";
+            case "json":
+                return ".json";
+            case "ndjson":
+                return ".ndjson";
+            default:
+                return ".csv";
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("⚠️  Could not delete export file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        long written = job.rowsWritten.get();
+        Integer progress = null;
+        if (job.status == JobStatus.COMPLETED) {
+            progress = 100;
+        } else if (job.totalRows != null && job.totalRows > 0) {
+            progress = (int) Math.min(99, written * 100 / job.totalRows);
+        }
+
+        Long fileSize = null;
+        if (job.status == JobStatus.COMPLETED) {
+            try {
+                fileSize = Files.size(job.file);
+            } catch (IOException e) {
+                // File was cleaned up underneath us - report without a size
+            }
+        }
+
+        return ExportJobDTO.builder()
+            .id(job.id)
+            .format(job.format)
+            .status(job.status)
+            .rowsWritten(written)
+            .totalRows(job.totalRows)
+            .progressPercent(progress)
+            .fileSize(fileSize)
+            .filename(job.filename)
+            .downloadUrl(job.status == JobStatus.COMPLETED ? "/api/export/jobs/" + job.id + "/download" : null)
+            .error(job.error)
+            .createdAt(job.createdAt)
+            .completedAt(job.completedAt)
+            .build();
+    }
+
+    // In-memory job state - written by the worker thread, read by polling requests
+    private static class ExportJob {
+        final String id;
+        final String format;
+        final String filename;
+        final ExportFilter filter;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong rowsWritten = new AtomicLong();
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile Long totalRows;
+        volatile Path file;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+
+        ExportJob(String id, String format, String filename, ExportFilter filter) {
+            this.id = id;
+            this.format = format;
+            this.filename = filename;
+            this.filter = filter;
+        }
+    }
+}
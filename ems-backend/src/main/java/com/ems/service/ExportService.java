@@ -1,33 +1,59 @@
 package com.ems.service;
 
+import com.ems.dto.ExportFilter;
 import com.ems.entity.Employee;
 import com.ems.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Service
 public class ExportService {
 
     private final EmployeeRepository employeeRepository;
+    private final ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.export.excel.row-access-window:100}")
+    private int excelRowAccessWindow;
+    
+    @Value("${app.export.excel.compress-temp-files:true}")
+    private boolean excelCompressTempFiles;
+    
+    @Value("${app.export.excel.width-sample-rows:500}")
+    private int excelWidthSampleRows;
     
     // Using constructor injection (recommended)
     @Autowired
-    public ExportService(EmployeeRepository employeeRepository) {
+    public ExportService(EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
         this.employeeRepository = employeeRepository;
+        this.objectMapper = objectMapper;
     }
     
     // Constants for file names
@@ -35,37 +61,46 @@ public class ExportService {
     private static final String EXCEL_EXTENSION = ".xlsx";
     private static final DateTimeFormatter DATE_FORMATTER = 
         DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] EXPORT_HEADERS = {"ID", "First Name", "Last Name", "Email", "Phone", 
+                                                    "Department", "Position", "Salary", "Created Date"};
+    private static final int MAX_COLUMN_WIDTH = 255 * 256;
 
     @Transactional(readOnly = true)
     public ByteArrayInputStream exportEmployeesToCSV() {
-        List<Employee> employees = employeeRepository.findAll(Sort.by("firstName").ascending());
-        
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             CSVPrinter csvPrinter = new CSVPrinter(new PrintWriter(out), CSVFormat.DEFAULT)) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeEmployeesToCSV(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    // Streams rows straight to the given output, so memory stays flat regardless of table size
+    @Transactional(readOnly = true)
+    public void writeEmployeesToCSV(OutputStream out) {
+        writeEmployeesToCSV(out, ExportFilter.all(), rows -> {});
+    }
+
+    // Same as above for the filtered rows, reporting the number of rows written so far to the progress callback
+    @Transactional(readOnly = true)
+    public void writeEmployeesToCSV(OutputStream out, ExportFilter filter, LongConsumer progress) {
+        try (Stream<Employee> employees = openExportCursor(filter)) {
+            CSVPrinter csvPrinter = new CSVPrinter(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), CSVFormat.DEFAULT);
             
             // Write header
-            csvPrinter.printRecord("ID", "First Name", "Last Name", "Email", "Phone", 
-                                 "Department", "Position", "Salary", "Created Date");
+            csvPrinter.printRecord((Object[]) EXPORT_HEADERS);
             
-            // Write data rows
-            for (Employee employee : employees) {
-                List<String> data = Arrays.asList(
-                    String.valueOf(employee.getId()),
-                    employee.getFirstName(),
-                    employee.getLastName(),
-                    employee.getEmail(),
-                    employee.getPhoneNumber(),
-                    employee.getDepartment(),
-                    employee.getPosition(),
-                    String.valueOf(employee.getSalary()),
-                    employee.getCreatedAt() != null ? 
-                        employee.getCreatedAt().format(DATE_FORMATTER) : "N/A"
-                );
-                csvPrinter.printRecord(data);
+            // Write data rows as they come off the cursor
+            long rows = 0;
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                Employee employee = iterator.next();
+                csvPrinter.printRecord(toCsvRow(employee));
+                // Detach so the persistence context doesn't grow with the export
+                entityManager.detach(employee);
+                progress.accept(++rows);
             }
             
+            // Flush only - the caller owns the output stream
             csvPrinter.flush();
-            return new ByteArrayInputStream(out.toByteArray());
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to export CSV: " + e.getMessage(), e);
@@ -74,30 +109,42 @@ public class ExportService {
 
     @Transactional(readOnly = true)
     public ByteArrayInputStream exportEmployeesToExcel() {
-        List<Employee> employees = employeeRepository.findAll(Sort.by("firstName").ascending());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeEmployeesToExcel(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    // Streaming workbook: only the last rowAccessWindow rows stay in memory, the rest go to a temp file
+    @Transactional(readOnly = true)
+    public void writeEmployeesToExcel(OutputStream out) {
+        writeEmployeesToExcel(out, ExportFilter.all(), rows -> {});
+    }
+
+    @Transactional(readOnly = true)
+    public void writeEmployeesToExcel(OutputStream out, ExportFilter filter, LongConsumer progress) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(excelRowAccessWindow);
+        workbook.setCompressTempFiles(excelCompressTempFiles);
         
-        try (Workbook workbook = new XSSFWorkbook(); 
-             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            
+        try (Stream<Employee> employees = openExportCursor(filter)) {
             Sheet sheet = workbook.createSheet("Employees");
+            ExcelStyleCache styles = new ExcelStyleCache(workbook);
+            int[] columnWidths = new int[EXPORT_HEADERS.length];
             
             // Create header row with style
             Row headerRow = sheet.createRow(0);
-            String[] headers = {"ID", "First Name", "Last Name", "Email", "Phone", 
-                              "Department", "Position", "Salary", "Created Date"};
-            
-            CellStyle headerStyle = createHeaderStyle(workbook);
-            
-            for (int i = 0; i < headers.length; i++) {
+            for (int i = 0; i < EXPORT_HEADERS.length; i++) {
                 Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+                cell.setCellValue(EXPORT_HEADERS[i]);
+                cell.setCellStyle(styles.header());
+                columnWidths[i] = EXPORT_HEADERS[i].length();
             }
             
-            // Create data rows
+            // Create data rows as they come off the cursor
             int rowNum = 1;
-            for (Employee employee : employees) {
-                Row row = sheet.createRow(rowNum++);
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                Employee employee = iterator.next();
+                Row row = sheet.createRow(rowNum);
                 
                 row.createCell(0).setCellValue(employee.getId());
                 row.createCell(1).setCellValue(employee.getFirstName());
@@ -107,50 +154,165 @@ public class ExportService {
                 row.createCell(5).setCellValue(employee.getDepartment());
                 row.createCell(6).setCellValue(employee.getPosition());
                 
-                // Format salary cell as number
+                // Format salary cell as number - style is shared, not created per row
                 Cell salaryCell = row.createCell(7);
-                salaryCell.setCellValue(employee.getSalary());
-                salaryCell.setCellStyle(createNumberStyle(workbook));
+                if (employee.getSalary() != null) {
+                    salaryCell.setCellValue(employee.getSalary());
+                }
+                salaryCell.setCellStyle(styles.number());
                 
                 // Date cell
-                Cell dateCell = row.createCell(8);
-                if (employee.getCreatedAt() != null) {
-                    dateCell.setCellValue(employee.getCreatedAt().format(DATE_FORMATTER));
-                } else {
-                    dateCell.setCellValue("N/A");
+                String createdDate = employee.getCreatedAt() != null ?
+                    employee.getCreatedAt().format(DATE_FORMATTER) : "N/A";
+                row.createCell(8).setCellValue(createdDate);
+                
+                // Estimate column widths from a sample instead of autoSizeColumn (which scans every cell)
+                if (rowNum <= excelWidthSampleRows) {
+                    sampleColumnWidths(columnWidths, toCsvRow(employee));
                 }
+                
+                entityManager.detach(employee);
+                progress.accept(rowNum);
+                rowNum++;
             }
             
-            // Auto-size columns for better readability
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+            for (int i = 0; i < columnWidths.length; i++) {
+                sheet.setColumnWidth(i, Math.min(MAX_COLUMN_WIDTH, (columnWidths[i] + 2) * 256));
             }
             
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+            out.flush();
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to export Excel: " + e.getMessage(), e);
+        } finally {
+            // Remove the temp files backing the flushed rows
+            workbook.dispose();
         }
     }
     
-    // Helper method for header style
-    private CellStyle createHeaderStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        Font font = workbook.createFont();
-        font.setBold(true);
-        font.setFontHeightInPoints((short) 11);
-        style.setFont(font);
-        style.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        return style;
+    // Writes a JSON array, or one JSON object per line (NDJSON) when ndjson is true.
+    // Each row is serialized as soon as it is fetched - nothing is collected into a list.
+    @Transactional(readOnly = true)
+    public void writeEmployeesToJson(OutputStream out, ExportFilter filter, boolean ndjson, LongConsumer progress) {
+        try (Stream<Employee> employees = openExportCursor(filter);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            
+            // The caller owns the output stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                generator.writeStartArray();
+            }
+            
+            long rows = 0;
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                Employee employee = iterator.next();
+                writeJsonRow(generator, employee);
+                entityManager.detach(employee);
+                progress.accept(++rows);
+            }
+            
+            if (ndjson) {
+                generator.writeRaw('\n');
+            } else {
+                generator.writeEndArray();
+            }
+            generator.flush();
+            
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to export JSON: " + e.getMessage(), e);
+        }
+    }
+    
+    // Pick the narrowest query for the filter so the department/salary predicates run in the database
+    private Stream<Employee> openExportCursor(ExportFilter filter) {
+        if (filter.hasDepartments()) {
+            return employeeRepository.streamByDepartmentsForExport(
+                filter.getDepartments(), filter.getMinSalary(), filter.getMaxSalary());
+        }
+        if (filter.getMinSalary() != null || filter.getMaxSalary() != null) {
+            return employeeRepository.streamBySalaryRangeForExport(filter.getMinSalary(), filter.getMaxSalary());
+        }
+        return employeeRepository.streamAllForExport();
     }
     
-    // Helper method for number formatting
-    private CellStyle createNumberStyle(Workbook workbook) {
-        CellStyle style = workbook.createCellStyle();
-        style.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
-        return style;
+    private void writeJsonRow(JsonGenerator generator, Employee employee) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", employee.getId());
+        generator.writeStringField("firstName", employee.getFirstName());
+        generator.writeStringField("lastName", employee.getLastName());
+        generator.writeStringField("email", employee.getEmail());
+        generator.writeStringField("phoneNumber", employee.getPhoneNumber());
+        generator.writeStringField("department", employee.getDepartment());
+        generator.writeStringField("position", employee.getPosition());
+        if (employee.getSalary() != null) {
+            generator.writeNumberField("salary", employee.getSalary());
+        } else {
+            generator.writeNullField("salary");
+        }
+        generator.writeStringField("createdAt",
+            employee.getCreatedAt() != null ? employee.getCreatedAt().toString() : null);
+        generator.writeEndObject();
+    }
+    
+    // Helper method to map an employee to a CSV row
+    private List<String> toCsvRow(Employee employee) {
+        return Arrays.asList(
+            String.valueOf(employee.getId()),
+            employee.getFirstName(),
+            employee.getLastName(),
+            employee.getEmail(),
+            employee.getPhoneNumber(),
+            employee.getDepartment(),
+            employee.getPosition(),
+            String.valueOf(employee.getSalary()),
+            employee.getCreatedAt() != null ? 
+                employee.getCreatedAt().format(DATE_FORMATTER) : "N/A"
+        );
+    }
+    
+    private void sampleColumnWidths(int[] columnWidths, List<String> values) {
+        for (int i = 0; i < columnWidths.length; i++) {
+            String value = values.get(i);
+            if (value != null && value.length() > columnWidths[i]) {
+                columnWidths[i] = value.length();
+            }
+        }
+    }
+    
+    // Per-workbook style cache - a workbook is limited to 64k styles, so create each one once
+    private static class ExcelStyleCache {
+        private final Workbook workbook;
+        private CellStyle headerStyle;
+        private CellStyle numberStyle;
+        
+        ExcelStyleCache(Workbook workbook) {
+            this.workbook = workbook;
+        }
+        
+        CellStyle header() {
+            if (headerStyle == null) {
+                headerStyle = workbook.createCellStyle();
+                Font font = workbook.createFont();
+                font.setBold(true);
+                font.setFontHeightInPoints((short) 11);
+                headerStyle.setFont(font);
+                headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+                headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            }
+            return headerStyle;
+        }
+        
+        CellStyle number() {
+            if (numberStyle == null) {
+                numberStyle = workbook.createCellStyle();
+                numberStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+            }
+            return numberStyle;
+        }
     }
     
     // Utility method to generate filename
@@ -161,4 +323,17 @@ public class ExportService {
     public String generateExcelFilename() {
         return "employees_" + System.currentTimeMillis() + EXCEL_EXTENSION;
     }
+    
+    public String generateFilename(ExportFilter filter, String extension) {
+        String prefix = filter.hasDepartments() ? "employees_" + String.join("_", filter.getDepartments()) : "employees";
+        return prefix.replaceAll("[^A-Za-z0-9_-]", "") + "_" + System.currentTimeMillis() + extension;
+    }
+    
+    public long countEmployees(ExportFilter filter) {
+        if (filter.hasDepartments()) {
+            return employeeRepository.countByDepartmentsAndSalaryRange(
+                filter.getDepartments(), filter.getMinSalary(), filter.getMaxSalary());
+        }
+        return employeeRepository.countBySalaryRange(filter.getMinSalary(), filter.getMaxSalary());
+    }
 }
\ No newline at end of file
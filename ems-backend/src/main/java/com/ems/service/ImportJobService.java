@@ -0,0 +1,229 @@
+package com.ems.service;
+
+import com.ems.dto.ImportJobDTO;
+import com.ems.dto.ImportRowErrorDTO;
+import com.ems.dto.JobStatus;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ImportJobService {
+
+    private static final String[] ERROR_REPORT_HEADERS = {"Row", "Email", "Reason"};
+
+    private final CSVImportService csvImportService;
+    private final ExcelImportService excelImportService;
+    private final ThreadPoolTaskExecutor importJobExecutor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.import.jobs.dir:${java.io.tmpdir}/ems-imports}")
+    private String jobsDir;
+
+    @Value("${app.import.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Autowired
+    public ImportJobService(CSVImportService csvImportService, ExcelImportService excelImportService,
+                            @Qualifier("importJobExecutor") ThreadPoolTaskExecutor importJobExecutor) {
+        this.csvImportService = csvImportService;
+        this.excelImportService = excelImportService;
+        this.importJobExecutor = importJobExecutor;
+    }
+
+    // ========== JOB LIFECYCLE ==========
+
+    // The upload is spooled to disk before returning - the multipart temp file
+    // is removed as soon as the request completes
+    public ImportJobDTO submitJob(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Uploaded file is empty");
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename());
+        Path dir = Paths.get(jobsDir);
+        Files.createDirectories(dir);
+        job.upload = dir.resolve(job.id + ".upload");
+        job.errorReport = dir.resolve(job.id + "-errors.csv");
+        file.transferTo(job.upload);
+        jobs.put(job.id, job);
+
+        try {
+            importJobExecutor.execute(() -> runJob(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            deleteQuietly(job.upload);
+            throw new RuntimeException("Import queue is full, please try again later");
+        }
+
+        System.out.println("📥 Import job " + job.id + " queued (" + job.filename + ")");
+        return toDTO(job);
+    }
+
+    public ImportJobDTO getJob(String id) {
+        return toDTO(findJob(id));
+    }
+
+    // Returns the error CSV of a finished job
+    public Path getErrorReport(String id) {
+        ImportJob job = findJob(id);
+        if (job.status != JobStatus.COMPLETED && job.status != JobStatus.FAILED) {
+            throw new IllegalStateException("Import job is not finished yet: " + job.status);
+        }
+        if (!Files.exists(job.errorReport)) {
+            throw new RuntimeException("Import job has no error report: " + id);
+        }
+        return job.errorReport;
+    }
+
+    private void runJob(ImportJob job) {
+        job.status = JobStatus.RUNNING;
+        long started = System.currentTimeMillis();
+
+        try {
+            // Rejections are appended to the error report as they happen
+            try (CSVPrinter errors = new CSVPrinter(
+                     Files.newBufferedWriter(job.errorReport, StandardCharsets.UTF_8),
+                     CSVFormat.DEFAULT.withHeader(ERROR_REPORT_HEADERS))) {
+
+                ImportProgressListener listener = new ImportProgressListener() {
+                    @Override
+                    public void rowsParsed(long count) {
+                        job.rowsParsed.addAndGet(count);
+                    }
+
+                    @Override
+                    public void rowsInserted(long count) {
+                        job.rowsInserted.addAndGet(count);
+                    }
+
+                    @Override
+                    public void rowRejected(ImportRowErrorDTO error) {
+                        job.rowsRejected.incrementAndGet();
+                        try {
+                            errors.printRecord(error.getRowNumber(), error.getEmail(), error.getReason());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                };
+
+                if (isExcel(job.filename)) {
+                    excelImportService.importEmployeesFromExcel(job.upload, listener);
+                } else {
+                    try (InputStream in = Files.newInputStream(job.upload)) {
+                        csvImportService.importEmployeesFromCSV(in, listener);
+                    }
+                }
+            }
+
+            // Only reported as completed once the error report has been flushed and closed
+            job.status = JobStatus.COMPLETED;
+            System.out.println("✅ Import job " + job.id + " completed: " + job.rowsInserted.get()
+                + " imported, " + job.rowsRejected.get() + " rejected");
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+            System.err.println("❌ Import job " + job.id + " failed: " + e.getMessage());
+        } finally {
+            job.durationMs = System.currentTimeMillis() - started;
+            job.completedAt = LocalDateTime.now();
+            deleteQuietly(job.upload);
+        }
+    }
+
+    // Drop finished jobs and their error reports once the retention period has passed
+    @Scheduled(fixedDelayString = "${app.import.jobs.cleanup-interval-ms:600000}")
+    public void cleanupExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.completedAt != null && job.completedAt.isBefore(cutoff);
+            if (expired) {
+                deleteQuietly(job.errorReport);
+            }
+            return expired;
+        });
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private ImportJob findJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Import job not found: " + id);
+        }
+        return job;
+    }
+
+    private boolean isExcel(String filename) {
+        return filename != null && filename.toLowerCase().endsWith(".xlsx");
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("⚠️  Could not delete import file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private ImportJobDTO toDTO(ImportJob job) {
+        boolean finished = job.status == JobStatus.COMPLETED || job.status == JobStatus.FAILED;
+        return ImportJobDTO.builder()
+            .id(job.id)
+            .filename(job.filename)
+            .status(job.status)
+            .rowsParsed(job.rowsParsed.get())
+            .rowsInserted(job.rowsInserted.get())
+            .rowsRejected(job.rowsRejected.get())
+            .errorReportUrl(finished && job.rowsRejected.get() > 0
+                ? "/api/employees/import/jobs/" + job.id + "/errors" : null)
+            .error(job.error)
+            .createdAt(job.createdAt)
+            .completedAt(job.completedAt)
+            .durationMs(job.durationMs)
+            .build();
+    }
+
+    // In-memory job state - written by the worker thread, read by polling requests
+    private static class ImportJob {
+        final String id;
+        final String filename;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong rowsParsed = new AtomicLong();
+        final AtomicLong rowsInserted = new AtomicLong();
+        final AtomicLong rowsRejected = new AtomicLong();
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile Path upload;
+        volatile Path errorReport;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+        volatile Long durationMs;
+
+        ImportJob(String id, String filename) {
+            this.id = id;
+            this.filename = filename;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ems.service;
+
+import com.ems.dto.ImportRowErrorDTO;
+
+// Progress callbacks from the import pipeline. rowsParsed is called from the parse thread,
+// the other two from the inserting thread only.
+public interface ImportProgressListener {
+
+    ImportProgressListener NONE = new ImportProgressListener() {};
+
+    default void rowsParsed(long count) {}
+
+    default void rowsInserted(long count) {}
+
+    // Called for every rejected row - unlike ImportResultDTO.errors this is not capped
+    default void rowRejected(ImportRowErrorDTO error) {}
+}
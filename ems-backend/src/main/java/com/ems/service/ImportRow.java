@@ -0,0 +1,31 @@
+package com.ems.service;
+
+import com.ems.entity.Employee;
+
+import java.util.Map;
+
+// One source row travelling through the import pipeline
+class ImportRow {
+    final long rowNumber;
+    final Map<String, String> values;   // Keys are lower-cased column headers
+    Employee employee;
+    String rejection;
+
+    ImportRow(long rowNumber, Map<String, String> values) {
+        this.rowNumber = rowNumber;
+        this.values = values;
+    }
+
+    String value(String column) {
+        String value = values.get(column);
+        return value != null ? value.trim() : null;
+    }
+
+    boolean isRejected() {
+        return rejection != null;
+    }
+
+    void reject(String reason) {
+        this.rejection = reason;
+    }
+}
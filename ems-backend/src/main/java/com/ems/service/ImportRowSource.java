@@ -0,0 +1,9 @@
+package com.ems.service;
+
+import java.util.function.Consumer;
+
+// Produces raw rows (header -> value) for the import pipeline, e.g. from a CSV file
+@FunctionalInterface
+interface ImportRowSource {
+    void read(Consumer<ImportRow> sink) throws Exception;
+}
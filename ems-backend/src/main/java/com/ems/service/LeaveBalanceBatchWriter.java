@@ -0,0 +1,103 @@
+package com.ems.service;
+
+import com.ems.entity.LeaveLedgerEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Plain JDBC batches for bulk leave decisions - one conditional balance UPDATE per employee and
+// one ledger INSERT per leave, each list sent as a single batch. Runs in the caller's transaction.
+@Component
+public class LeaveBalanceBatchWriter {
+
+    // Same guard as the single-leave path (EmployeeRepository.deductUsed*), applied only to the
+    // counters this row actually moves - a counter already over its allowance must not block
+    // deductions of another leave type
+    private static final String DEDUCT_SQL =
+        "UPDATE employees SET used_vacation = used_vacation + ?, used_sick = used_sick + ?, " +
+        "used_personal = used_personal + ?, version = version + 1 " +
+        "WHERE id = ? AND (? = 0 OR used_vacation + ? <= vacation_days) " +
+        "AND (? = 0 OR used_sick + ? <= sick_days) AND (? = 0 OR used_personal + ? <= personal_days)";
+
+    private static final String LEDGER_SQL =
+        "INSERT INTO leave_ledger (employee_id, leave_request_id, leave_type, entry_type, days, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LeaveBalanceBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns the update count per deduction, in order - 0 means the balance no longer covers it
+    public int[] deduct(List<BalanceDeduction> deductions) {
+        if (deductions.isEmpty()) return new int[0];
+
+        return jdbcTemplate.batchUpdate(DEDUCT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BalanceDeduction deduction = deductions.get(i);
+                ps.setInt(1, deduction.vacation);
+                ps.setInt(2, deduction.sick);
+                ps.setInt(3, deduction.personal);
+                ps.setLong(4, deduction.employeeId);
+                ps.setInt(5, deduction.vacation);
+                ps.setInt(6, deduction.vacation);
+                ps.setInt(7, deduction.sick);
+                ps.setInt(8, deduction.sick);
+                ps.setInt(9, deduction.personal);
+                ps.setInt(10, deduction.personal);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return deductions.size();
+            }
+        });
+    }
+
+    public void insertLedgerEntries(List<LeaveLedgerEntry> entries) {
+        if (entries.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(LEDGER_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LeaveLedgerEntry entry = entries.get(i);
+                ps.setLong(1, entry.getEmployeeId());
+                ps.setLong(2, entry.getLeaveRequestId());
+                ps.setString(3, entry.getLeaveType().name());
+                ps.setString(4, entry.getEntryType().name());
+                ps.setInt(5, entry.getDays());
+                ps.setTimestamp(6, Timestamp.valueOf(entry.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    // Days to add to one employee's used counters
+    public static class BalanceDeduction {
+        final Long employeeId;
+        int vacation;
+        int sick;
+        int personal;
+
+        public BalanceDeduction(Long employeeId) {
+            this.employeeId = employeeId;
+        }
+
+        public boolean isEmpty() {
+            return vacation == 0 && sick == 0 && personal == 0;
+        }
+    }
+}
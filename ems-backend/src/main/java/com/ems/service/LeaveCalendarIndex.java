@@ -0,0 +1,182 @@
+package com.ems.service;
+
+import com.ems.dto.LeaveRequestDTO;
+import com.ems.entity.Employee;
+import com.ems.entity.LeaveRequest;
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.event.LeaveStatusChangedEvent;
+import com.ems.repository.LeaveRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Approved leaves held in memory per department, ordered by start date, for the team calendar.
+ *
+ * A leave overlaps [from, to] when it starts on or before 'to' and ends on or after 'from'.
+ * Because no indexed leave is longer than maxLengthDays, every overlapping leave starts within
+ * [from - maxLengthDays, to], so a query only walks that slice of each start-date map instead
+ * of every leave. Built from the database when the application is ready and kept current from
+ * LeaveStatusChangedEvent and EmployeesChangedEvent.
+ *
+ * Indexed DTOs never leave the index: it stores its own copies and hands out copies, so
+ * callers can neither change it nor see a leave being updated while they serialize it.
+ */
+@Component
+public class LeaveCalendarIndex {
+
+    private final LeaveRequestRepository leaveRequestRepository;
+
+    // department -> start date -> leaves starting that day
+    private final Map<String, TreeMap<LocalDate, List<LeaveRequestDTO>>> departments = new HashMap<>();
+    private final Map<Long, Entry> leaves = new HashMap<>();
+    private final Map<Long, Set<Long>> leavesByEmployee = new HashMap<>();
+    // Longest indexed leave in days - only grows until the next rebuild, which is safe
+    private long maxLengthDays;
+    private volatile boolean ready;
+
+    @Autowired
+    public LeaveCalendarIndex(LeaveRequestRepository leaveRequestRepository) {
+        this.leaveRequestRepository = leaveRequestRepository;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        departments.clear();
+        leaves.clear();
+        leavesByEmployee.clear();
+        maxLengthDays = 0;
+
+        for (LeaveRequest leave : leaveRequestRepository.findByStatusWithEmployees(LeaveStatus.APPROVED)) {
+            add(LeaveService.mapToDTO(leave), leave.getEmployee().getDepartment());
+        }
+        ready = true;
+        System.out.println("📅 Leave calendar index rebuilt: " + leaves.size() + " approved leaves, "
+            + departments.size() + " departments");
+    }
+
+    // Runs after commit; events published outside a transaction are applied immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onLeaveStatusChanged(LeaveStatusChangedEvent event) {
+        LeaveRequestDTO leave = event.getLeave();
+        remove(leave.getId());
+        if (leave.getStatus() == LeaveStatus.APPROVED) {
+            add(leave.toBuilder().build(), event.getDepartment());
+        }
+    }
+
+    // Leaves follow their employee's department and name; deleted employees take their leaves along
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        for (Employee employee : event.getSaved()) {
+            Set<Long> ids = leavesByEmployee.get(employee.getId());
+            if (ids == null) continue;
+
+            String name = employee.getFirstName() + " " + employee.getLastName();
+            for (Long id : new ArrayList<>(ids)) {
+                LeaveRequestDTO renamed = leaves.get(id).leave.toBuilder().employeeName(name).build();
+                remove(id);
+                add(renamed, employee.getDepartment());
+            }
+        }
+        for (Long employeeId : event.getDeletedIds()) {
+            Set<Long> ids = leavesByEmployee.get(employeeId);
+            if (ids != null) {
+                new ArrayList<>(ids).forEach(this::remove);
+            }
+        }
+    }
+
+    // ========== READS ==========
+
+    /**
+     * Approved leaves overlapping [from, to], ordered by start date, for one department or
+     * all of them when department is null. Returns null until the index has been built.
+     */
+    public synchronized List<LeaveRequestDTO> findApproved(LocalDate from, LocalDate to, String department) {
+        if (!ready) return null;
+
+        Collection<TreeMap<LocalDate, List<LeaveRequestDTO>>> byStart = department != null
+            ? (departments.containsKey(department) ? List.of(departments.get(department)) : List.of())
+            : departments.values();
+
+        List<LeaveRequestDTO> result = new ArrayList<>();
+        LocalDate earliestStart = from.minusDays(maxLengthDays);
+        for (TreeMap<LocalDate, List<LeaveRequestDTO>> starts : byStart) {
+            NavigableMap<LocalDate, List<LeaveRequestDTO>> candidates = starts.subMap(earliestStart, true, to, true);
+            for (List<LeaveRequestDTO> sameStart : candidates.values()) {
+                for (LeaveRequestDTO leave : sameStart) {
+                    if (!leave.getEndDate().isBefore(from)) {
+                        result.add(leave.toBuilder().build());
+                    }
+                }
+            }
+        }
+
+        if (department == null) {
+            result.sort(Comparator.comparing(LeaveRequestDTO::getStartDate));
+        }
+        return result;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void add(LeaveRequestDTO leave, String department) {
+        String key = department != null ? department : "";
+        departments.computeIfAbsent(key, d -> new TreeMap<>())
+            .computeIfAbsent(leave.getStartDate(), d -> new ArrayList<>())
+            .add(leave);
+        leaves.put(leave.getId(), new Entry(leave, key));
+        leavesByEmployee.computeIfAbsent(leave.getEmployeeId(), id -> new HashSet<>()).add(leave.getId());
+        maxLengthDays = Math.max(maxLengthDays, ChronoUnit.DAYS.between(leave.getStartDate(), leave.getEndDate()));
+    }
+
+    private void remove(Long leaveId) {
+        Entry entry = leaves.remove(leaveId);
+        if (entry == null) return;
+
+        TreeMap<LocalDate, List<LeaveRequestDTO>> starts = departments.get(entry.department);
+        List<LeaveRequestDTO> sameStart = starts.get(entry.leave.getStartDate());
+        sameStart.removeIf(l -> l.getId().equals(leaveId));
+        if (sameStart.isEmpty()) {
+            starts.remove(entry.leave.getStartDate());
+            if (starts.isEmpty()) {
+                departments.remove(entry.department);
+            }
+        }
+
+        Set<Long> employeeLeaves = leavesByEmployee.get(entry.leave.getEmployeeId());
+        employeeLeaves.remove(leaveId);
+        if (employeeLeaves.isEmpty()) {
+            leavesByEmployee.remove(entry.leave.getEmployeeId());
+        }
+    }
+
+    private static class Entry {
+        final LeaveRequestDTO leave;
+        final String department;
+
+        Entry(LeaveRequestDTO leave, String department) {
+            this.leave = leave;
+            this.department = department;
+        }
+    }
+}
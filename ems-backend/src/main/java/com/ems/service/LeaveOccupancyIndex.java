@@ -0,0 +1,278 @@
+package com.ems.service;
+
+import com.ems.dto.DepartmentCoverageDTO;
+import com.ems.dto.DepartmentStatsDTO;
+import com.ems.dto.LeaveRequestDTO;
+import com.ems.entity.Employee;
+import com.ems.entity.LeaveRequest;
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.event.LeaveStatusChangedEvent;
+import com.ems.repository.LeaveRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Day-by-day "who is out" matrix for the leave dashboard. Every day from today onwards that is
+ * covered by an approved leave has a bitset of absent employee ids, a headcount of absent
+ * employees and per-department absent counts, and leave starts are counted per day. "On leave
+ * today" and department coverage are single map lookups; "upcoming in N days" sums N counters.
+ *
+ * Built from the database when the application is ready, kept current from
+ * LeaveStatusChangedEvent and EmployeesChangedEvent, and past days are dropped nightly.
+ */
+@Component
+public class LeaveOccupancyIndex {
+
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final EmployeeStatsAggregator statsAggregator;
+
+    private final Map<LocalDate, Day> days = new HashMap<>();
+    private final TreeMap<LocalDate, Integer> startsPerDay = new TreeMap<>();
+    private final Map<Long, Occupancy> leaves = new HashMap<>();
+    private final Map<Long, Set<Long>> leavesByEmployee = new HashMap<>();
+    // Department each indexed employee's absences are counted under
+    private final Map<Long, String> departmentByEmployee = new HashMap<>();
+
+    @Autowired
+    public LeaveOccupancyIndex(LeaveRequestRepository leaveRequestRepository,
+                               EmployeeStatsAggregator statsAggregator) {
+        this.leaveRequestRepository = leaveRequestRepository;
+        this.statsAggregator = statsAggregator;
+    }
+
+    // ========== MAINTENANCE ==========
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        days.clear();
+        startsPerDay.clear();
+        leaves.clear();
+        leavesByEmployee.clear();
+        departmentByEmployee.clear();
+
+        LocalDate today = LocalDate.now();
+        for (LeaveRequest leave : leaveRequestRepository.findByStatusWithEmployees(LeaveStatus.APPROVED)) {
+            if (!leave.getEndDate().isBefore(today)) {
+                add(new Occupancy(leave.getId(), leave.getEmployee().getId(), leave.getStartDate(), leave.getEndDate()),
+                    leave.getEmployee().getDepartment());
+            }
+        }
+        System.out.println("🗓️  Leave occupancy rebuilt: " + leaves.size() + " current and upcoming leaves over "
+            + days.size() + " days");
+    }
+
+    // Runs after commit; events published outside a transaction are applied immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onLeaveStatusChanged(LeaveStatusChangedEvent event) {
+        LeaveRequestDTO leave = event.getLeave();
+        remove(leave.getId());
+        if (leave.getStatus() == LeaveStatus.APPROVED && !leave.getEndDate().isBefore(LocalDate.now())) {
+            add(new Occupancy(leave.getId(), leave.getEmployeeId(), leave.getStartDate(), leave.getEndDate()),
+                event.getDepartment());
+        }
+    }
+
+    // Department moves shift the per-department counters; deleted employees take their leaves along
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        for (Employee employee : event.getSaved()) {
+            moveEmployee(employee.getId(), employee.getDepartment());
+        }
+        for (Long employeeId : event.getDeletedIds()) {
+            Set<Long> ids = leavesByEmployee.get(employeeId);
+            if (ids != null) {
+                new ArrayList<>(ids).forEach(this::remove);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.leave.occupancy.prune-cron:0 5 0 * * *}")
+    public void prunePastDays() {
+        prunePastDays(LocalDate.now());
+    }
+
+    // Drops the days before 'today' and the leaves that ended before it
+    synchronized void prunePastDays(LocalDate today) {
+        days.keySet().removeIf(day -> day.isBefore(today));
+        startsPerDay.headMap(today).clear();
+        new ArrayList<>(leaves.values()).stream()
+            .filter(o -> o.end.isBefore(today))
+            .forEach(o -> remove(o.leaveId));
+    }
+
+    // ========== READS ==========
+
+    public synchronized int countOnLeave(LocalDate date) {
+        Day day = days.get(date);
+        return day != null ? day.absent : 0;
+    }
+
+    // Approved leaves starting in the next 'withinDays' days, today excluded
+    public synchronized int countUpcomingLeaves(LocalDate from, int withinDays) {
+        return startsPerDay.subMap(from, false, from.plusDays(withinDays), true).values().stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+    }
+
+    // Every department with its absent count and share present on the given day
+    public List<DepartmentCoverageDTO> getDepartmentCoverage(LocalDate date) {
+        List<DepartmentStatsDTO> headcounts = statsAggregator.getDepartmentStats();
+        Map<String, Integer> absent;
+        synchronized (this) {
+            Day day = days.get(date);
+            absent = day != null ? new HashMap<>(day.absentByDepartment) : Map.of();
+        }
+
+        List<DepartmentCoverageDTO> coverage = new ArrayList<>(headcounts.size());
+        for (DepartmentStatsDTO department : headcounts) {
+            long headcount = department.getHeadcount();
+            int onLeave = absent.getOrDefault(department.getDepartment(), 0);
+            double percent = headcount > 0 ? (headcount - onLeave) * 100.0 / headcount : 100.0;
+            coverage.add(DepartmentCoverageDTO.builder()
+                .department(department.getDepartment())
+                .date(date)
+                .headcount(headcount)
+                .onLeave(onLeave)
+                .coveragePercent(Math.round(percent * 10.0) / 10.0)
+                .build());
+        }
+        return coverage;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void add(Occupancy occupancy, String department) {
+        if (leavesByEmployee.containsKey(occupancy.employeeId)) {
+            moveEmployee(occupancy.employeeId, department);
+        } else {
+            departmentByEmployee.put(occupancy.employeeId, department);
+        }
+        leaves.put(occupancy.leaveId, occupancy);
+        leavesByEmployee.computeIfAbsent(occupancy.employeeId, id -> new HashSet<>()).add(occupancy.leaveId);
+        startsPerDay.merge(occupancy.start, 1, Integer::sum);
+
+        int bit = Math.toIntExact(occupancy.employeeId);
+        for (LocalDate date = firstTrackedDay(occupancy); !date.isAfter(occupancy.end); date = date.plusDays(1)) {
+            Day day = days.computeIfAbsent(date, d -> new Day());
+            // Overlapping approved leaves of one employee must not count them twice
+            if (!day.employees.get(bit)) {
+                day.employees.set(bit);
+                day.absent++;
+                if (department != null) {
+                    day.absentByDepartment.merge(department, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private void remove(Long leaveId) {
+        Occupancy occupancy = leaves.remove(leaveId);
+        if (occupancy == null) return;
+
+        Set<Long> employeeLeaves = leavesByEmployee.get(occupancy.employeeId);
+        employeeLeaves.remove(leaveId);
+        String department = departmentByEmployee.get(occupancy.employeeId);
+        if (employeeLeaves.isEmpty()) {
+            leavesByEmployee.remove(occupancy.employeeId);
+            departmentByEmployee.remove(occupancy.employeeId);
+        }
+        startsPerDay.computeIfPresent(occupancy.start, (d, count) -> count > 1 ? count - 1 : null);
+
+        int bit = Math.toIntExact(occupancy.employeeId);
+        for (LocalDate date = firstTrackedDay(occupancy); !date.isAfter(occupancy.end); date = date.plusDays(1)) {
+            Day day = days.get(date);
+            if (day == null || !day.employees.get(bit) || coveredByOtherLeave(employeeLeaves, date)) continue;
+
+            day.employees.clear(bit);
+            day.absent--;
+            if (department != null) {
+                decrement(day, department);
+            }
+            if (day.absent == 0) {
+                days.remove(date);
+            }
+        }
+    }
+
+    // Moves every tracked day the employee is absent from their old department's count to the new one
+    private void moveEmployee(Long employeeId, String department) {
+        if (!leavesByEmployee.containsKey(employeeId)) return;
+
+        String previous = departmentByEmployee.put(employeeId, department);
+        if (equalsNullable(previous, department)) return;
+
+        int bit = Math.toIntExact(employeeId);
+        Set<LocalDate> absentDays = new HashSet<>();
+        for (Long id : leavesByEmployee.get(employeeId)) {
+            Occupancy occupancy = leaves.get(id);
+            for (LocalDate date = firstTrackedDay(occupancy); !date.isAfter(occupancy.end); date = date.plusDays(1)) {
+                absentDays.add(date);
+            }
+        }
+        for (LocalDate date : absentDays) {
+            Day day = days.get(date);
+            if (day == null || !day.employees.get(bit)) continue;
+            if (previous != null) decrement(day, previous);
+            if (department != null) day.absentByDepartment.merge(department, 1, Integer::sum);
+        }
+    }
+
+    private void decrement(Day day, String department) {
+        day.absentByDepartment.computeIfPresent(department, (d, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean coveredByOtherLeave(Set<Long> employeeLeaves, LocalDate date) {
+        for (Long id : employeeLeaves) {
+            Occupancy other = leaves.get(id);
+            if (!date.isBefore(other.start) && !date.isAfter(other.end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Days before today are never queried, so they are not materialized
+    private LocalDate firstTrackedDay(Occupancy occupancy) {
+        LocalDate today = LocalDate.now();
+        return occupancy.start.isBefore(today) ? today : occupancy.start;
+    }
+
+    private boolean equalsNullable(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static class Day {
+        final BitSet employees = new BitSet();
+        final Map<String, Integer> absentByDepartment = new HashMap<>();
+        int absent;
+    }
+
+    private static class Occupancy {
+        final Long leaveId;
+        final Long employeeId;
+        final LocalDate start;
+        final LocalDate end;
+
+        Occupancy(Long leaveId, Long employeeId, LocalDate start, LocalDate end) {
+            this.leaveId = leaveId;
+            this.employeeId = employeeId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
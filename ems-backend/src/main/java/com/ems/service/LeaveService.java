@@ -1,17 +1,26 @@
 package com.ems.service;
 
+import com.ems.dto.BulkLeaveDecisionItemDTO;
+import com.ems.dto.BulkLeaveDecisionResultDTO;
+import com.ems.dto.DepartmentCoverageDTO;
 import com.ems.dto.LeaveRequestDTO;
 import com.ems.dto.LeaveBalanceDTO;
 import com.ems.dto.LeavePolicyDTO;
 import com.ems.dto.LeaveStatsDTO;
+import com.ems.entity.LeaveLedgerEntry;
+import com.ems.entity.LeaveLedgerEntry.EntryType;
 import com.ems.entity.LeaveRequest;
 import com.ems.entity.LeavePolicy;
 import com.ems.entity.Employee;
 import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.event.LeaveStatusChangedEvent;
+import com.ems.repository.LeaveLedgerRepository;
 import com.ems.repository.LeaveRequestRepository;
 import com.ems.repository.LeavePolicyRepository;
 import com.ems.repository.EmployeeRepository;
+import com.ems.service.LeaveBalanceBatchWriter.BalanceDeduction;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -20,7 +29,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +46,12 @@ public class LeaveService {
     private final LeaveRequestRepository leaveRequestRepository;
     private final LeavePolicyRepository leavePolicyRepository;
     private final EmployeeRepository employeeRepository;
+    private final LeaveLedgerRepository leaveLedgerRepository;
+    private final LeaveBalanceBatchWriter leaveBalanceBatchWriter;
+    private final LeaveCalendarIndex leaveCalendarIndex;
+    private final LeaveOccupancyIndex leaveOccupancyIndex;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
     
     // Leave Request Methods
     
@@ -38,7 +60,7 @@ public class LeaveService {
         Employee employee = employeeRepository.findById(employeeId)
             .orElseThrow(() -> new RuntimeException("Employee not found"));
         
-        // Validate leave balance
+        // Advisory only - the balance is enforced atomically when the leave is approved
         validateLeaveBalance(employee, dto);
         
         // Check for overlapping leaves
@@ -58,6 +80,7 @@ public class LeaveService {
         leaveRequest.setStatus(LeaveStatus.PENDING);
         
         LeaveRequest saved = leaveRequestRepository.save(leaveRequest);
+        notificationService.sendLeaveRequestNotification(saved);
         
         return mapToDTO(saved);
     }
@@ -67,12 +90,16 @@ public class LeaveService {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(leaveId)
             .orElseThrow(() -> new RuntimeException("Leave request not found"));
         
+        if (leaveRequest.getStatus() != LeaveStatus.PENDING) {
+            throw new RuntimeException("Only pending leave requests can be approved");
+        }
+        
         // Get approver employee
         Employee approver = employeeRepository.findById(approverId)
             .orElseThrow(() -> new RuntimeException("Approver not found"));
         
-        // Update leave balance
-        updateLeaveBalance(leaveRequest, true);
+        // Deduct leave balance
+        updateLeaveBalance(leaveRequest, EntryType.DEDUCT);
         
         leaveRequest.setStatus(LeaveStatus.APPROVED);
         leaveRequest.setApprovedBy(approver);
@@ -80,8 +107,9 @@ public class LeaveService {
         leaveRequest.setApprovedDate(LocalDateTime.now()); // Fixed method name
         
         LeaveRequest updated = leaveRequestRepository.save(leaveRequest);
+        notificationService.sendLeaveApprovalNotification(updated);
         
-        return mapToDTO(updated);
+        return publishStatusChange(updated);
     }
     
     @Transactional
@@ -89,6 +117,10 @@ public class LeaveService {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(leaveId)
             .orElseThrow(() -> new RuntimeException("Leave request not found"));
         
+        if (leaveRequest.getStatus() != LeaveStatus.PENDING) {
+            throw new RuntimeException("Only pending leave requests can be rejected");
+        }
+        
         // Get approver employee
         Employee approver = employeeRepository.findById(approverId)
             .orElseThrow(() -> new RuntimeException("Approver not found"));
@@ -99,8 +131,9 @@ public class LeaveService {
         leaveRequest.setApprovedDate(LocalDateTime.now()); // Fixed method name
         
         LeaveRequest updated = leaveRequestRepository.save(leaveRequest);
+        notificationService.sendLeaveRejectionNotification(updated);
         
-        return mapToDTO(updated);
+        return publishStatusChange(updated);
     }
     
     @Transactional
@@ -112,15 +145,99 @@ public class LeaveService {
             throw new RuntimeException("Unauthorized to cancel this leave");
         }
         
+        if (leaveRequest.getStatus() != LeaveStatus.PENDING && leaveRequest.getStatus() != LeaveStatus.APPROVED) {
+            throw new RuntimeException("Only pending or approved leave requests can be cancelled");
+        }
+        
         if (leaveRequest.getStatus() == LeaveStatus.APPROVED) {
             // Refund leave balance
-            updateLeaveBalance(leaveRequest, false);
+            updateLeaveBalance(leaveRequest, EntryType.REFUND);
         }
         
         leaveRequest.setStatus(LeaveStatus.CANCELLED);
         LeaveRequest updated = leaveRequestRepository.save(leaveRequest);
         
-        return mapToDTO(updated);
+        return publishStatusChange(updated);
+    }
+    
+    /**
+     * Approves or rejects many leave requests in one transaction. The requests and their
+     * employees come from one query; approvals are checked against each employee's remaining
+     * balance in request order and the deductions go out as one JDBC batch with one guarded
+     * UPDATE per employee, followed by one batch of ledger entries. Status changes are flushed
+     * as a Hibernate batch. Requests that cannot be decided are reported per item and left as
+     * they were.
+     */
+    @Transactional
+    public BulkLeaveDecisionResultDTO decideLeavesBulk(List<Long> leaveIds, LeaveStatus decision,
+                                                       Long approverId, String comments) {
+        if (decision != LeaveStatus.APPROVED && decision != LeaveStatus.REJECTED) {
+            throw new IllegalArgumentException("Decision must be APPROVED or REJECTED");
+        }
+        
+        Employee approver = employeeRepository.findById(approverId)
+            .orElseThrow(() -> new RuntimeException("Approver not found"));
+        
+        Set<Long> ids = new LinkedHashSet<>(leaveIds);
+        Map<Long, LeaveRequest> leaves = leaveRequestRepository.findAllWithEmployeesByIdIn(ids).stream()
+            .collect(Collectors.toMap(LeaveRequest::getId, Function.identity()));
+        
+        Map<Long, String> errors = new HashMap<>();
+        List<LeaveRequest> decided = new ArrayList<>();
+        for (Long id : ids) {
+            LeaveRequest leave = leaves.get(id);
+            if (leave == null) {
+                errors.put(id, "Leave request not found");
+            } else if (leave.getStatus() != LeaveStatus.PENDING) {
+                errors.put(id, "Only pending leave requests can be "
+                    + (decision == LeaveStatus.APPROVED ? "approved" : "rejected"));
+            } else {
+                decided.add(leave);
+            }
+        }
+        
+        if (decision == LeaveStatus.APPROVED) {
+            decided = deductBalances(decided, errors);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<LeaveLedgerEntry> ledgerEntries = new ArrayList<>();
+        for (LeaveRequest leave : decided) {
+            leave.setStatus(decision);
+            leave.setApprovedBy(approver);
+            leave.setApprovalComments(comments);
+            leave.setApprovedDate(now);
+            if (decision == LeaveStatus.APPROVED && affectsBalance(leave)) {
+                ledgerEntries.add(new LeaveLedgerEntry(leave.getEmployee().getId(), leave.getId(),
+                    leave.getLeaveType(), EntryType.DEDUCT, leave.getTotalDays()));
+            }
+        }
+        leaveBalanceBatchWriter.insertLedgerEntries(ledgerEntries);
+        // Versioned updates - a request decided concurrently fails the whole batch
+        leaveRequestRepository.flush();
+        notificationService.sendLeaveDecisionNotifications(decided, decision);
+        decided.forEach(this::publishStatusChange);
+        
+        List<BulkLeaveDecisionItemDTO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LeaveRequest leave = leaves.get(id);
+            results.add(BulkLeaveDecisionItemDTO.builder()
+                .leaveId(id)
+                .success(!errors.containsKey(id))
+                .status(leave != null ? leave.getStatus() : null)
+                .error(errors.get(id))
+                .build());
+        }
+        
+        System.out.println("📋 Bulk leave decision " + decision + ": " + decided.size() + " of " + ids.size() + " requests");
+        
+        return BulkLeaveDecisionResultDTO.builder()
+            .decision(decision)
+            .requested(ids.size())
+            .succeeded(decided.size())
+            .failed(ids.size() - decided.size())
+            .results(results)
+            .build();
     }
     
     // Leave Balance Methods
@@ -165,42 +282,52 @@ public class LeaveService {
     // Statistics Methods
     
     public LeaveStatsDTO getLeaveStats() {
-        long pending = leaveRequestRepository.countPendingRequests();
-        long approvedThisMonth = leaveRequestRepository.countApprovedThisMonth();
-        
-        // Calculate average leave duration
-        List<LeaveRequest> allLeaves = leaveRequestRepository.findAll();
-        double averageDuration = allLeaves.stream()
-            .filter(l -> l.getStatus() == LeaveStatus.APPROVED)
-            .mapToInt(LeaveRequest::getTotalDays)
-            .average()
-            .orElse(0.0);
-        
-        // FIXED: Changed allLeaves.size() to (long) allLeaves.size() to avoid int to Long issue
-        return LeaveStatsDTO.builder()
-            .pendingRequests(pending)
-            .approvedThisMonth(approvedThisMonth)
-            .rejectedThisMonth(0L) // You can add this query
-            .totalLeavesTaken((long) allLeaves.size()) // Fixed: cast int to long
-            .averageLeaveDuration(Math.round(averageDuration * 10.0) / 10.0)
-            .build();
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        LeaveStatsDTO stats = leaveRequestRepository.aggregateStats(monthStart, monthStart.plusMonths(1));
+        
+        // Total taken counts approved leaves; average duration is over the same leaves
+        double averageDuration = stats.getAverageLeaveDuration() != null ? stats.getAverageLeaveDuration() : 0.0;
+        stats.setAverageLeaveDuration(Math.round(averageDuration * 10.0) / 10.0);
+        return stats;
+    }
+    
+    // Occupancy Methods (answered from the in-memory day matrix)
+    
+    public int countOnLeaveToday() {
+        return leaveOccupancyIndex.countOnLeave(LocalDate.now());
+    }
+    
+    public int countUpcomingLeaves(int withinDays) {
+        if (withinDays < 0) {
+            throw new IllegalArgumentException("Upcoming days must not be negative");
+        }
+        return leaveOccupancyIndex.countUpcomingLeaves(LocalDate.now(), withinDays);
+    }
+    
+    // The occupancy matrix only holds today onwards - past days would read as fully covered
+    public List<DepartmentCoverageDTO> getDepartmentCoverage(LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (date != null && date.isBefore(today)) {
+            throw new IllegalArgumentException("Coverage is only available from today onwards");
+        }
+        return leaveOccupancyIndex.getDepartmentCoverage(date != null ? date : today);
     }
     
     // Calendar Methods
     
     public List<LeaveRequestDTO> getTeamCalendar(LocalDate startDate, LocalDate endDate, String department) {
-        List<LeaveRequest> leaves;
+        String filter = department != null && !department.isEmpty() ? department : null;
         
-        if (department != null && !department.isEmpty()) {
-            leaves = leaveRequestRepository.findByDepartmentAndDateRange(department, startDate, endDate);
-        } else {
-            leaves = leaveRequestRepository.findByDateRange(startDate, endDate);
+        // Served from memory once the calendar index is built; the database is the fallback
+        List<LeaveRequestDTO> indexed = leaveCalendarIndex.findApproved(startDate, endDate, filter);
+        if (indexed != null) {
+            return indexed;
         }
         
-        return leaves.stream()
-            .filter(l -> l.getStatus() == LeaveStatus.APPROVED)
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+        if (filter != null) {
+            return leaveRequestRepository.findApprovedDTOsInRangeForDepartment(filter, startDate, endDate);
+        }
+        return leaveRequestRepository.findApprovedDTOsInRange(startDate, endDate);
     }
     
     // Helper Methods
@@ -242,26 +369,114 @@ public class LeaveService {
         }
     }
     
-    private void updateLeaveBalance(LeaveRequest leaveRequest, boolean deduct) {
-        Employee employee = leaveRequest.getEmployee();
+    /**
+     * Moves used days with a single conditional UPDATE, so the allowance check cannot race with
+     * another approval, and records the move in the append-only leave ledger. Two decisions on
+     * the same request are serialized by the request's @Version: the loser rolls back, ledger
+     * entry and balance move included.
+     */
+    private void updateLeaveBalance(LeaveRequest leaveRequest, EntryType entryType) {
+        Long employeeId = leaveRequest.getEmployee().getId();
         int days = leaveRequest.getTotalDays();
+        boolean deduct = entryType == EntryType.DEDUCT;
         
+        int updated;
         switch (leaveRequest.getLeaveType()) {
             case VACATION:
-                employee.setUsedVacation(employee.getUsedVacation() + (deduct ? days : -days));
+                updated = deduct ? employeeRepository.deductUsedVacation(employeeId, days)
+                    : employeeRepository.refundUsedVacation(employeeId, days);
                 break;
             case SICK:
-                employee.setUsedSick(employee.getUsedSick() + (deduct ? days : -days));
+                updated = deduct ? employeeRepository.deductUsedSick(employeeId, days)
+                    : employeeRepository.refundUsedSick(employeeId, days);
                 break;
             case PERSONAL:
-                employee.setUsedPersonal(employee.getUsedPersonal() + (deduct ? days : -days));
+                updated = deduct ? employeeRepository.deductUsedPersonal(employeeId, days)
+                    : employeeRepository.refundUsedPersonal(employeeId, days);
                 break;
             default:
                 // Other leave types don't affect balance
-                break;
+                return;
+        }
+        
+        if (updated == 0) {
+            String type = leaveRequest.getLeaveType().name().toLowerCase();
+            throw new RuntimeException(deduct ? "Insufficient " + type + " days"
+                : "Used " + type + " days are lower than the refund");
         }
         
-        employeeRepository.save(employee);
+        leaveLedgerRepository.save(new LeaveLedgerEntry(employeeId, leaveRequest.getId(),
+            leaveRequest.getLeaveType(), entryType, deduct ? days : -days));
+    }
+    
+    /**
+     * Keeps the approvals each employee's balance covers, taken in request order, and deducts
+     * them with one guarded UPDATE per employee. If a balance moved since it was read and the
+     * UPDATE no longer matches, that employee's balance-affecting approvals are dropped.
+     */
+    private List<LeaveRequest> deductBalances(List<LeaveRequest> leaves, Map<Long, String> errors) {
+        // Ordered by employee id so concurrent bulk decisions lock rows in the same order
+        Map<Long, BalanceDeduction> deductions = new TreeMap<>();
+        Map<Long, List<LeaveRequest>> charged = new HashMap<>();
+        List<LeaveRequest> approvable = new ArrayList<>();
+        
+        for (LeaveRequest leave : leaves) {
+            if (!affectsBalance(leave)) {
+                approvable.add(leave);
+                continue;
+            }
+            
+            Employee employee = leave.getEmployee();
+            BalanceDeduction deduction = deductions.computeIfAbsent(employee.getId(), BalanceDeduction::new);
+            int days = leave.getTotalDays();
+            boolean covered;
+            switch (leave.getLeaveType()) {
+                case VACATION:
+                    covered = employee.getUsedVacation() + deduction.vacation + days <= employee.getVacationDays();
+                    if (covered) deduction.vacation += days;
+                    break;
+                case SICK:
+                    covered = employee.getUsedSick() + deduction.sick + days <= employee.getSickDays();
+                    if (covered) deduction.sick += days;
+                    break;
+                default:
+                    covered = employee.getUsedPersonal() + deduction.personal + days <= employee.getPersonalDays();
+                    if (covered) deduction.personal += days;
+                    break;
+            }
+            
+            if (covered) {
+                approvable.add(leave);
+                charged.computeIfAbsent(employee.getId(), id -> new ArrayList<>()).add(leave);
+            } else {
+                errors.put(leave.getId(), "Insufficient " + leave.getLeaveType().name().toLowerCase() + " days");
+            }
+        }
+        
+        List<BalanceDeduction> batch = deductions.values().stream()
+            .filter(d -> !d.isEmpty())
+            .collect(Collectors.toList());
+        int[] updated = leaveBalanceBatchWriter.deduct(batch);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) continue;
+            
+            for (LeaveRequest leave : charged.get(batch.get(i).employeeId)) {
+                approvable.remove(leave);
+                errors.put(leave.getId(), "Leave balance changed during the decision, please retry");
+            }
+        }
+        return approvable;
+    }
+    
+    private boolean affectsBalance(LeaveRequest leave) {
+        switch (leave.getLeaveType()) {
+            case VACATION:
+            case SICK:
+            case PERSONAL:
+                return true;
+            default:
+                return false;
+        }
     }
     
     private LeavePolicy createDefaultPolicy() {
@@ -278,8 +493,15 @@ public class LeaveService {
         return leavePolicyRepository.save(policy);
     }
     
+    // Notifies in-memory leave views once the transaction commits
+    private LeaveRequestDTO publishStatusChange(LeaveRequest leave) {
+        LeaveRequestDTO dto = mapToDTO(leave);
+        eventPublisher.publishEvent(new LeaveStatusChangedEvent(dto, leave.getEmployee().getDepartment()));
+        return dto;
+    }
+    
     // Mapping methods
-    private LeaveRequestDTO mapToDTO(LeaveRequest leave) {
+    static LeaveRequestDTO mapToDTO(LeaveRequest leave) {
         String approvedByName = null;
         if (leave.getApprovedBy() != null) {
             approvedByName = leave.getApprovedBy().getFirstName() + " " + leave.getApprovedBy().getLastName();
@@ -334,20 +556,14 @@ public class LeaveService {
     
     // Get leave requests with pagination
     public Page<LeaveRequestDTO> getLeaveRequests(Pageable pageable, LeaveStatus status) {
-        Page<LeaveRequest> leaves;
         if (status != null) {
-            leaves = leaveRequestRepository.findByStatus(status, pageable);
-        } else {
-            leaves = leaveRequestRepository.findAll(pageable);
+            return leaveRequestRepository.findDTOsByStatus(status, pageable);
         }
-        return leaves.map(this::mapToDTO);
+        return leaveRequestRepository.findAllDTOs(pageable);
     }
     
     // Get employee's leave requests
     public List<LeaveRequestDTO> getEmployeeLeaves(Long employeeId) {
-        List<LeaveRequest> leaves = leaveRequestRepository.findByEmployeeId(employeeId);
-        return leaves.stream()
-            .map(this::mapToDTO)
-            .collect(Collectors.toList());
+        return leaveRequestRepository.findDTOsByEmployeeId(employeeId);
     }
 }
\ No newline at end of file
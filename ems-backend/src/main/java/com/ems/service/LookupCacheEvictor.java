@@ -0,0 +1,23 @@
+package com.ems.service;
+
+import com.ems.config.CacheConfig;
+import com.ems.event.EmployeesChangedEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Drops the department/position dropdown caches after any employee write - including
+// imports, which bypass EmployeeService
+@Component
+public class LookupCacheEvictor {
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.DEPARTMENTS, allEntries = true),
+        @CacheEvict(value = CacheConfig.POSITIONS, allEntries = true)
+    })
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        // Eviction is handled by the annotations
+    }
+}
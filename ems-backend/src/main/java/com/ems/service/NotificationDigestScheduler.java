@@ -0,0 +1,114 @@
+package com.ems.service;
+
+import com.ems.entity.NotificationDigestItem;
+import com.ems.entity.NotificationOutbox;
+import com.ems.repository.NotificationDigestItemRepository;
+import com.ems.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Folds digest items into one email per recipient. A recipient's digest goes out once its
+ * oldest item has waited interval-minutes or it has collected threshold items, whichever comes
+ * first, so a manager gets at most a few emails per interval instead of one per leave request.
+ * Digests are written to the notification outbox and delivered by NotificationDispatcher.
+ */
+@Component
+public class NotificationDigestScheduler {
+
+    private final NotificationDigestItemRepository digestItemRepository;
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationRenderer notificationRenderer;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notifications.digest.interval-minutes:60}")
+    private long intervalMinutes;
+
+    @Value("${app.notifications.digest.threshold:50}")
+    private int threshold;
+
+    @Value("${app.notifications.digest.max-items:200}")
+    private int maxItems;
+
+    @Autowired
+    public NotificationDigestScheduler(NotificationDigestItemRepository digestItemRepository,
+                                       NotificationOutboxRepository outboxRepository,
+                                       NotificationRenderer notificationRenderer,
+                                       PlatformTransactionManager transactionManager) {
+        this.digestItemRepository = digestItemRepository;
+        this.outboxRepository = outboxRepository;
+        this.notificationRenderer = notificationRenderer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ========== FLUSHING ==========
+
+    // Returns the number of digest emails queued
+    @Scheduled(fixedDelayString = "${app.notifications.digest.check-interval-ms:60000}")
+    public int flushDue() {
+        LocalDateTime oldestAllowed = LocalDateTime.now().minusMinutes(intervalMinutes);
+        int queued = 0;
+        for (Object[] row : digestItemRepository.summarizeByRecipient()) {
+            String recipient = (String) row[0];
+            long count = ((Number) row[1]).longValue();
+            LocalDateTime oldest = (LocalDateTime) row[2];
+            if (count >= threshold || !oldest.isAfter(oldestAllowed)) {
+                queued += flush(recipient);
+            }
+        }
+        return queued;
+    }
+
+    // Everything pending for the recipient, max-items per email
+    public int flush(String recipient) {
+        int queued = 0;
+        while (true) {
+            Integer items = transactionTemplate.execute(status -> flushOne(recipient));
+            if (items == null || items == 0) break;
+
+            queued++;
+            System.out.println("📬 Digest of " + items + " notifications queued for " + recipient);
+            if (items < maxItems) break;
+        }
+        return queued;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    // Replaces up to max-items digest items with one outbox email, in one transaction
+    private int flushOne(String recipient) {
+        List<NotificationDigestItem> items =
+            digestItemRepository.findByRecipientOrderByIdAsc(recipient, PageRequest.of(0, maxItems));
+        if (items.isEmpty()) return 0;
+
+        List<String> summaries = items.stream().map(NotificationDigestItem::getSummary).collect(Collectors.toList());
+        String subject = items.size() + " leave request(s) awaiting approval";
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("count", items.size());
+        variables.put("items", summaries);
+        variables.put("company", "Employee Management System");
+        try {
+            String html = notificationRenderer.render(NotificationRenderer.LEAVE_REQUEST_DIGEST, variables);
+            outboxRepository.save(new NotificationOutbox(recipient, subject, html, true));
+        } catch (Exception e) {
+            // Falls back to a plain-text list so the items are still delivered and cleared
+            System.err.println("❌ Failed to render template email " + NotificationRenderer.LEAVE_REQUEST_DIGEST
+                + ": " + e.getMessage());
+            outboxRepository.save(new NotificationOutbox(recipient, subject, String.join("\n", summaries), false));
+        }
+        digestItemRepository.deleteAllInBatch(items);
+        return items.size();
+    }
+}
@@ -0,0 +1,181 @@
+package com.ems.service;
+
+import com.ems.entity.NotificationOutbox;
+import com.ems.entity.NotificationOutbox.OutboxStatus;
+import com.ems.repository.NotificationOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Background delivery of the notification outbox. Every run takes the due PENDING rows in
+ * batches and hands each batch to JavaMailSender.send(MimeMessage...), which opens one SMTP
+ * connection (one TLS handshake, one login) for the whole batch. Messages the server refused
+ * are retried with exponential backoff and marked FAILED once max-attempts is reached.
+ *
+ * Assumes a single application instance - rows are not locked while a batch is being sent.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectProvider<JavaMailSender> mailSender;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${spring.mail.username:no-reply@ems.com}")
+    private String fromEmail;
+
+    @Value("${app.notifications.dispatch.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.notifications.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.notifications.dispatch.backoff-initial-ms:30000}")
+    private long backoffInitialMs;
+
+    @Value("${app.notifications.dispatch.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${app.notifications.outbox.retention-days:7}")
+    private int retentionDays;
+
+    @Autowired
+    public NotificationDispatcher(NotificationOutboxRepository outboxRepository,
+                                  ObjectProvider<JavaMailSender> mailSender,
+                                  PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ========== DELIVERY ==========
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch.interval-ms:5000}")
+    public void dispatchDue() {
+        // Keep going while batches come back full; failed rows move into the future, so this ends
+        while (dispatchBatch() == batchSize) {
+            // next batch
+        }
+    }
+
+    /**
+     * Sends one batch of due messages over a single SMTP connection and records the outcome of
+     * each. Returns how many messages were due in the batch.
+     */
+    public int dispatchBatch() {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) return 0;
+
+        List<NotificationOutbox> due = transactionTemplate.execute(status ->
+            outboxRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize)));
+        if (due == null || due.isEmpty()) return 0;
+
+        Map<Long, String> failures = new HashMap<>();
+        Map<MimeMessage, Long> ids = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(due.size());
+        for (NotificationOutbox notification : due) {
+            try {
+                MimeMessage message = toMimeMessage(sender, notification);
+                ids.put(message, notification.getId());
+                messages.add(message);
+            } catch (MessagingException e) {
+                failures.put(notification.getId(), e.getMessage());
+            }
+        }
+
+        try {
+            sender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Only the messages listed here failed - the rest of the batch went out
+            e.getFailedMessages().forEach((message, cause) -> {
+                Long id = ids.get(message);
+                if (id != null) failures.put(id, cause.getMessage());
+            });
+        } catch (MailException e) {
+            // Connection or authentication failure - nothing in the batch was sent
+            ids.values().forEach(id -> failures.put(id, e.getMessage()));
+        }
+
+        int[] counts = transactionTemplate.execute(status -> recordOutcome(due, failures));
+        System.out.println("📨 Notification outbox: " + counts[0] + " sent, " + counts[1] + " to retry, "
+            + counts[2] + " failed");
+        return due.size();
+    }
+
+    @Scheduled(cron = "${app.notifications.outbox.prune-cron:0 15 0 * * *}")
+    public void pruneSent() {
+        Integer deleted = transactionTemplate.execute(status ->
+            outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays)));
+        if (deleted != null && deleted > 0) {
+            System.out.println("🧹 Pruned " + deleted + " sent notifications");
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private MimeMessage toMimeMessage(JavaMailSender sender, NotificationOutbox notification) throws MessagingException {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(notification.getRecipient());
+        helper.setSubject(notification.getSubject());
+        helper.setText(notification.getBody(), notification.isHtml());
+        return message;
+    }
+
+    // Returns {sent, retrying, failed}; the updates are flushed as one JDBC batch
+    private int[] recordOutcome(List<NotificationOutbox> batch, Map<Long, String> failures) {
+        int[] counts = new int[3];
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = batch.stream().map(NotificationOutbox::getId).collect(Collectors.toList());
+
+        for (NotificationOutbox notification : outboxRepository.findAllById(ids)) {
+            notification.setAttempts(notification.getAttempts() + 1);
+            String error = failures.get(notification.getId());
+            if (error == null) {
+                notification.setStatus(OutboxStatus.SENT);
+                notification.setSentAt(now);
+                notification.setLastError(null);
+                counts[0]++;
+                continue;
+            }
+
+            notification.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (notification.getAttempts() >= maxAttempts) {
+                notification.setStatus(OutboxStatus.FAILED);
+                counts[2]++;
+                System.err.println("❌ Giving up on email to " + notification.getRecipient() + ": " + error);
+            } else {
+                notification.setNextAttemptAt(now.plusNanos(backoffMs(notification.getAttempts()) * 1_000_000));
+                counts[1]++;
+            }
+        }
+        return counts;
+    }
+
+    // initial, 2x, 4x, ... capped at backoff-max-ms
+    private long backoffMs(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(backoffInitialMs << doublings, backoffMaxMs);
+    }
+}
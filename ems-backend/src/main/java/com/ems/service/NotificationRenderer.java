@@ -0,0 +1,133 @@
+package com.ems.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Renders notification emails from the Thymeleaf templates in templates/email/. The engine is
+ * dedicated to email: parsed templates stay in its cache for the life of the application and
+ * expressions go through the compiled SpEL path, so a render is only the walk over the cached
+ * template. Each thread renders into its own reused StringWriter, and renderAll splits a batch
+ * of recipients into chunks rendered in parallel on the notificationRenderExecutor.
+ */
+@Component
+public class NotificationRenderer {
+
+    public static final String LEAVE_APPROVED = "leave-approved";
+    public static final String LEAVE_REJECTED = "leave-rejected";
+    public static final String LEAVE_REQUEST_DIGEST = "leave-request-digest";
+
+    private static final int INITIAL_BUFFER = 4 * 1024;
+    // A buffer that grew past this for one unusually large email is dropped rather than kept per thread
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringWriter> BUFFERS = ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER));
+
+    private final SpringTemplateEngine templateEngine;
+    private final Executor executor;
+    private final int parallelThreshold;
+
+    @Autowired
+    public NotificationRenderer(@Qualifier("notificationRenderExecutor") Executor executor,
+                                @Value("${app.notifications.render.cache-templates:true}") boolean cacheTemplates,
+                                @Value("${app.notifications.render.template-cache-size:50}") int templateCacheSize,
+                                @Value("${app.notifications.render.parallel-threshold:32}") int parallelThreshold) {
+        this.executor = executor;
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+        this.templateEngine = createEngine(cacheTemplates, templateCacheSize);
+    }
+
+    // ========== RENDERING ==========
+
+    public String render(String templateName, Map<String, Object> variables) {
+        StringWriter writer = BUFFERS.get();
+        writer.getBuffer().setLength(0);
+
+        templateEngine.process(templateName, new Context(Locale.ENGLISH, variables), writer);
+        String html = writer.toString();
+
+        if (writer.getBuffer().capacity() > MAX_RETAINED_BUFFER) {
+            BUFFERS.set(new StringWriter(INITIAL_BUFFER));
+        }
+        return html;
+    }
+
+    /**
+     * Renders one email per variables map, in order. Batches up to parallel-threshold are
+     * rendered on the caller's thread; larger ones are split into chunks of at least that size,
+     * one per render thread. An email that fails to render is left null so the caller can fall
+     * back for that recipient alone.
+     */
+    public List<String> renderAll(String templateName, List<Map<String, Object>> recipients) {
+        int size = recipients.size();
+        if (size <= parallelThreshold) {
+            return renderRange(templateName, recipients, 0, size);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(parallelThreshold, (size + threads - 1) / threads);
+        List<CompletableFuture<List<String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            chunks.add(CompletableFuture.supplyAsync(() -> renderRange(templateName, recipients, start, end), executor));
+        }
+
+        List<String> rendered = new ArrayList<>(size);
+        for (CompletableFuture<List<String>> chunk : chunks) {
+            rendered.addAll(chunk.join());
+        }
+        return rendered;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<String> renderRange(String templateName, List<Map<String, Object>> recipients, int from, int to) {
+        List<String> rendered = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            try {
+                rendered.add(render(templateName, recipients.get(i)));
+            } catch (Exception e) {
+                System.err.println("❌ Failed to render template email " + templateName + ": " + e.getMessage());
+                rendered.add(null);
+            }
+        }
+        return rendered;
+    }
+
+    private static SpringTemplateEngine createEngine(boolean cacheTemplates, int templateCacheSize) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/email/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(cacheTemplates);
+        // No TTL - templates ship inside the jar and never change while the application runs
+        resolver.setCacheTTLMs(null);
+
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(templateCacheSize);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.setCacheManager(cacheManager);
+        engine.setEnableSpringELCompiler(true);
+        return engine;
+    }
+}
@@ -1,29 +1,42 @@
 package com.ems.service;
 
 import com.ems.entity.LeaveRequest;
+import com.ems.entity.LeaveRequest.LeaveStatus;
 import com.ems.entity.Employee;
+import com.ems.entity.NotificationDigestItem;
+import com.ems.entity.NotificationOutbox;
+import com.ems.repository.NotificationDigestItemRepository;
+import com.ems.repository.NotificationOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+// Emails are not sent here: they are written to the notification outbox in the caller's
+// transaction and delivered in the background by NotificationDispatcher
 @Service
 public class NotificationService {
     
-    @Autowired(required = false)
-    private JavaMailSender mailSender;
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
     
-    @Autowired(required = false)
-    private TemplateEngine templateEngine;
+    @Autowired
+    private NotificationDigestItemRepository digestItemRepository;
     
-    @Value("${spring.mail.username:no-reply@ems.com}")
-    private String fromEmail;
+    @Autowired
+    private NotificationRenderer notificationRenderer;
+    
+    // Approver of new leave requests until requests are routed to the employee's own manager
+    @Value("${app.notifications.manager-email:manager@company.com}")
+    private String managerEmail;
+    
+    @Value("${app.notifications.digest.enabled:true}")
+    private boolean digestEnabled;
     
     @Value("${app.notifications.enabled:true}")
     private boolean notificationsEnabled;
@@ -43,9 +56,14 @@ public class NotificationService {
         
         System.out.println("📧 Leave Request Notification: " + message);
         
-        // Try to send email if mailSender is available
+        // Managers get one digest per interval (NotificationDigestScheduler) instead of an email per request
+        if (digestEnabled) {
+            digestItemRepository.save(new NotificationDigestItem(managerEmail, message));
+            return;
+        }
+        
         sendSimpleEmail(
-            "manager@company.com", // In real app, get manager's email
+            managerEmail,
             "New Leave Request Requires Approval",
             message
         );
@@ -54,72 +72,75 @@ public class NotificationService {
     public void sendLeaveApprovalNotification(LeaveRequest leaveRequest) {
         if (!notificationsEnabled) return;
         
-        String message = String.format(
-            "Your leave request has been APPROVED: %s leave from %s to %s",
-            leaveRequest.getLeaveType(),
-            leaveRequest.getStartDate(),
-            leaveRequest.getEndDate()
-        );
+        String message = approvalMessage(leaveRequest);
         
         System.out.println("✅ Leave Approval Notification: " + message);
         
         // Send email to employee
         if (leaveRequest.getEmployee().getEmail() != null) {
-            sendSimpleEmail(
-                leaveRequest.getEmployee().getEmail(),
-                "Leave Request Approved",
-                message
-            );
+            sendRenderedEmail(leaveRequest, NotificationRenderer.LEAVE_APPROVED, "Leave Request Approved", message);
         }
     }
     
     public void sendLeaveRejectionNotification(LeaveRequest leaveRequest) {
         if (!notificationsEnabled) return;
         
-        String reason = leaveRequest.getApprovalComments() != null ? 
-            leaveRequest.getApprovalComments() : "No reason provided";
-        
-        String message = String.format(
-            "Your leave request has been REJECTED: %s leave from %s to %s. Reason: %s",
-            leaveRequest.getLeaveType(),
-            leaveRequest.getStartDate(),
-            leaveRequest.getEndDate(),
-            reason
-        );
+        String message = rejectionMessage(leaveRequest);
         
         System.out.println("❌ Leave Rejection Notification: " + message);
         
         // Send email to employee
         if (leaveRequest.getEmployee().getEmail() != null) {
-            sendSimpleEmail(
-                leaveRequest.getEmployee().getEmail(),
-                "Leave Request Rejected",
-                message
-            );
+            sendRenderedEmail(leaveRequest, NotificationRenderer.LEAVE_REJECTED, "Leave Request Rejected", message);
         }
     }
     
-    // Simple email sending method
-    private void sendSimpleEmail(String to, String subject, String body) {
-        if (mailSender == null) {
-            System.out.println("⚠️  MailSender not configured. Email not sent to: " + to);
-            return;
+    // Bulk decisions - the variables are read here, the emails are rendered in parallel.
+    // A recipient whose email cannot be rendered gets the plain-text message instead.
+    public void sendLeaveDecisionNotifications(List<LeaveRequest> leaveRequests, LeaveStatus decision) {
+        if (!notificationsEnabled) return;
+        
+        List<LeaveRequest> recipients = new ArrayList<>();
+        List<Map<String, Object>> variables = new ArrayList<>();
+        for (LeaveRequest leaveRequest : leaveRequests) {
+            if (leaveRequest.getEmployee().getEmail() != null) {
+                recipients.add(leaveRequest);
+                variables.add(leaveVariables(leaveRequest));
+            }
         }
+        if (recipients.isEmpty()) return;
         
+        boolean approved = decision == LeaveStatus.APPROVED;
+        String templateName = approved ? NotificationRenderer.LEAVE_APPROVED : NotificationRenderer.LEAVE_REJECTED;
+        List<String> bodies;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body);
-            
-            mailSender.send(message);
-            System.out.println("✅ Email sent successfully to: " + to);
-        } catch (MessagingException e) {
-            System.err.println("❌ Failed to send email to " + to + ": " + e.getMessage());
+            bodies = notificationRenderer.renderAll(templateName, variables);
+        } catch (Exception e) {
+            // The batch could not be scheduled at all - every recipient falls back
+            System.err.println("❌ Failed to render template emails " + templateName + ": " + e.getMessage());
+            bodies = Collections.nCopies(recipients.size(), null);
         }
+        
+        String subject = approved ? "Leave Request Approved" : "Leave Request Rejected";
+        List<NotificationOutbox> emails = new ArrayList<>(recipients.size());
+        for (int i = 0; i < recipients.size(); i++) {
+            LeaveRequest leaveRequest = recipients.get(i);
+            String to = leaveRequest.getEmployee().getEmail();
+            if (bodies.get(i) != null) {
+                emails.add(new NotificationOutbox(to, subject, bodies.get(i), true));
+            } else {
+                String message = approved ? approvalMessage(leaveRequest) : rejectionMessage(leaveRequest);
+                emails.add(new NotificationOutbox(to, subject, message, false));
+            }
+        }
+        outboxRepository.saveAll(emails);
+        System.out.println("📧 " + emails.size() + " leave " + decision.name().toLowerCase() + " emails queued");
+    }
+    
+    // Simple email sending method - queued, committed together with the caller's transaction
+    private void sendSimpleEmail(String to, String subject, String body) {
+        outboxRepository.save(new NotificationOutbox(to, subject, body, false));
+        System.out.println("📧 Email queued for: " + to);
     }
     
     // Additional notification methods
@@ -151,43 +172,59 @@ public class NotificationService {
         sendSimpleEmail(employee.getEmail(), subject, body);
     }
     
-    // Template-based email (if template engine is available)
+    // Template-based email from templates/email/<templateName>.html
     public void sendLeaveTemplateEmail(LeaveRequest leaveRequest, String templateName) {
-        if (templateEngine == null || mailSender == null) {
-            sendSimpleEmail(
-                leaveRequest.getEmployee().getEmail(),
-                "Leave Status Update",
-                "Your leave request status has been updated."
-            );
-            return;
-        }
-        
+        sendRenderedEmail(leaveRequest, templateName, "Leave Request Update", "Your leave request status has been updated.");
+    }
+    
+    // Falls back to the plain-text message if the template cannot be rendered
+    private void sendRenderedEmail(LeaveRequest leaveRequest, String templateName, String subject, String fallbackText) {
+        String to = leaveRequest.getEmployee().getEmail();
         try {
-            Context context = new Context();
-            context.setVariable("employee", leaveRequest.getEmployee());
-            context.setVariable("leave", leaveRequest);
-            context.setVariable("company", "Employee Management System");
-            
-            String htmlContent = templateEngine.process(templateName, context);
-            
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(leaveRequest.getEmployee().getEmail());
-            helper.setSubject("Leave Request Update");
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(message);
-            System.out.println("✅ Template email sent successfully");
+            String htmlContent = notificationRenderer.render(templateName, leaveVariables(leaveRequest));
+            outboxRepository.save(new NotificationOutbox(to, subject, htmlContent, true));
+            System.out.println("📧 Template email queued for: " + to);
         } catch (Exception e) {
-            System.err.println("❌ Failed to send template email: " + e.getMessage());
-            // Fallback to simple email
-            sendSimpleEmail(
-                leaveRequest.getEmployee().getEmail(),
-                "Leave Status Update",
-                "Your leave request status has been updated."
-            );
+            System.err.println("❌ Failed to render template email " + templateName + ": " + e.getMessage());
+            sendSimpleEmail(to, subject, fallbackText);
         }
     }
-}
\ No newline at end of file
+    
+    private String approvalMessage(LeaveRequest leaveRequest) {
+        return String.format(
+            "Your leave request has been APPROVED: %s leave from %s to %s",
+            leaveRequest.getLeaveType(),
+            leaveRequest.getStartDate(),
+            leaveRequest.getEndDate()
+        );
+    }
+    
+    private String rejectionMessage(LeaveRequest leaveRequest) {
+        String reason = leaveRequest.getApprovalComments() != null ? 
+            leaveRequest.getApprovalComments() : "No reason provided";
+        
+        return String.format(
+            "Your leave request has been REJECTED: %s leave from %s to %s. Reason: %s",
+            leaveRequest.getLeaveType(),
+            leaveRequest.getStartDate(),
+            leaveRequest.getEndDate(),
+            reason
+        );
+    }
+    
+    private Map<String, Object> leaveVariables(LeaveRequest leaveRequest) {
+        Employee employee = leaveRequest.getEmployee();
+        Employee approver = leaveRequest.getApprovedBy();
+        
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("employeeName", employee.getFirstName() + " " + employee.getLastName());
+        variables.put("leaveType", leaveRequest.getLeaveType().name());
+        variables.put("startDate", leaveRequest.getStartDate().toString());
+        variables.put("endDate", leaveRequest.getEndDate().toString());
+        variables.put("totalDays", leaveRequest.getTotalDays());
+        variables.put("approverName", approver != null ? approver.getFirstName() + " " + approver.getLastName() : null);
+        variables.put("comments", leaveRequest.getApprovalComments());
+        variables.put("company", "Employee Management System");
+        return variables;
+    }
+}
@@ -0,0 +1,72 @@
+-- Baseline: the schema Hibernate generated with ddl-auto=update before migrations were introduced
+
+create table employees (
+    id bigint generated by default as identity,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    phone_number varchar(255),
+    country_code varchar(255),
+    department varchar(255),
+    position varchar(255),
+    salary float(53),
+    hire_date timestamp(6),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    vacation_days integer,
+    sick_days integer,
+    personal_days integer,
+    used_vacation integer,
+    used_sick integer,
+    used_personal integer,
+    profile_picture varchar(255),
+    emergency_contact_name varchar(255),
+    emergency_contact_relation varchar(255),
+    emergency_contact_phone varchar(255),
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+
+create table leave_policies (
+    id bigint generated by default as identity,
+    vacation_days integer not null,
+    sick_days integer not null,
+    personal_days integer not null,
+    maternity_days integer not null,
+    paternity_days integer not null,
+    max_consecutive_days integer not null,
+    advance_notice_days integer not null,
+    carry_over_enabled boolean not null,
+    max_carry_over_days integer not null,
+    primary key (id)
+);
+
+create table leave_requests (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    leave_type varchar(255) not null check (leave_type in ('VACATION','SICK','PERSONAL','MATERNITY','PATERNITY','UNPAID')),
+    start_date date not null,
+    end_date date not null,
+    total_days integer not null,
+    reason varchar(500),
+    status varchar(255) not null check (status in ('PENDING','APPROVED','REJECTED','CANCELLED')),
+    approved_by bigint,
+    approval_comments varchar(255),
+    approved_date timestamp(6),
+    created_at timestamp(6) not null,
+    updated_at timestamp(6),
+    primary key (id),
+    constraint fk_leave_requests_employee foreign key (employee_id) references employees (id),
+    constraint fk_leave_requests_approved_by foreign key (approved_by) references employees (id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(255) not null,
+    password varchar(255),
+    email varchar(255) not null,
+    role varchar(255) check (role in ('ADMIN','USER')),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
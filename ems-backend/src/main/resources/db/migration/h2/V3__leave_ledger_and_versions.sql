@@ -0,0 +1,27 @@
+-- Optimistic locking columns for Employee and LeaveRequest (@Version)
+alter table employees add column version bigint default 0 not null;
+alter table leave_requests add column version bigint default 0 not null;
+
+-- Balances are adjusted with "used + n <= allowance" conditions, which need non-null counters
+update employees set vacation_days = 20 where vacation_days is null;
+update employees set sick_days = 10 where sick_days is null;
+update employees set personal_days = 5 where personal_days is null;
+update employees set used_vacation = 0 where used_vacation is null;
+update employees set used_sick = 0 where used_sick is null;
+update employees set used_personal = 0 where used_personal is null;
+
+-- Append-only history of used-days changes (LeaveLedgerEntry); entries go away with their employee
+create table leave_ledger (
+    id bigint generated by default as identity,
+    employee_id bigint not null,
+    leave_request_id bigint not null,
+    leave_type varchar(255) not null check (leave_type in ('VACATION','SICK','PERSONAL','MATERNITY','PATERNITY','UNPAID')),
+    entry_type varchar(255) not null check (entry_type in ('DEDUCT','REFUND')),
+    days integer not null,
+    created_at timestamp(6) not null,
+    primary key (id),
+    constraint fk_leave_ledger_employee foreign key (employee_id) references employees (id) on delete cascade,
+    constraint fk_leave_ledger_leave_request foreign key (leave_request_id) references leave_requests (id) on delete cascade
+);
+
+create index idx_leave_ledger_employee_type on leave_ledger (employee_id, leave_type);
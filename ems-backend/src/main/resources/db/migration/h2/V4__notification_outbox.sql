@@ -0,0 +1,18 @@
+-- Outgoing mail written in the sender's transaction and delivered by NotificationDispatcher
+create table notification_outbox (
+    id bigint generated by default as identity,
+    recipient varchar(255) not null,
+    subject varchar(255) not null,
+    body clob not null,
+    html boolean not null,
+    status varchar(255) not null check (status in ('PENDING','SENT','FAILED')),
+    attempts integer not null,
+    next_attempt_at timestamp(6) not null,
+    last_error varchar(1000),
+    created_at timestamp(6) not null,
+    sent_at timestamp(6),
+    primary key (id)
+);
+
+-- The dispatcher polls for "PENDING and due"
+create index idx_notification_outbox_due on notification_outbox (status, next_attempt_at);
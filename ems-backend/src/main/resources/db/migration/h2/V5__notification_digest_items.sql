@@ -0,0 +1,10 @@
+-- Manager notifications waiting to be folded into one digest email (NotificationDigestScheduler)
+create table notification_digest_items (
+    id bigint generated by default as identity,
+    recipient varchar(255) not null,
+    summary varchar(1000) not null,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+create index idx_notification_digest_recipient on notification_digest_items (recipient, id);
@@ -0,0 +1,16 @@
+-- Indexes for the hot repository queries. Unique email and primary keys are covered by V1.
+
+-- Default listing order (ORDER BY first_name) and the (first_name, id) keyset pagination seek
+create index idx_employees_first_name_id on employees (first_name, id);
+-- Department filter + ORDER BY first_name (list, findByDepartment, department exports) and DISTINCT department
+create index idx_employees_department_first_name on employees (department, first_name);
+-- Position filter and DISTINCT position
+create index idx_employees_position on employees (position);
+-- Salary range exports and counts
+create index idx_employees_salary on employees (salary);
+
+-- findByEmployeeId, findByEmployeeIdAndStatus and findOverlappingLeaves; also backs the employee_id foreign key
+create index idx_leave_requests_employee_dates on leave_requests (employee_id, start_date, end_date);
+-- findByStatus, pending/approved counts and the approved-in-range team calendar
+-- (findApprovedDTOsInRange*: status = 'APPROVED' AND start_date <= :end AND end_date >= :start)
+create index idx_leave_requests_status_start on leave_requests (status, start_date);
@@ -0,0 +1,18 @@
+-- Outgoing mail written in the sender's transaction and delivered by NotificationDispatcher
+create table notification_outbox (
+    id bigint not null auto_increment,
+    recipient varchar(255) not null,
+    subject varchar(255) not null,
+    body longtext not null,
+    html bit not null,
+    status enum ('PENDING','SENT','FAILED') not null,
+    attempts integer not null,
+    next_attempt_at datetime(6) not null,
+    last_error varchar(1000),
+    created_at datetime(6) not null,
+    sent_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+-- The dispatcher polls for "PENDING and due"
+create index idx_notification_outbox_due on notification_outbox (status, next_attempt_at);
@@ -0,0 +1,113 @@
+package com.ems.benchmark;
+
+import com.ems.service.NotificationRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emails rendered per second for the leave approval and rejection templates: one at a time
+ * with the template cache, without it (re-resolving and re-parsing every time, as a baseline),
+ * and as a parallel batch of BATCH recipients.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.ems.benchmark.NotificationRenderBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NotificationRenderBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({NotificationRenderer.LEAVE_APPROVED, NotificationRenderer.LEAVE_REJECTED})
+    private String template;
+
+    private ThreadPoolTaskExecutor executor;
+    private NotificationRenderer cached;
+    private NotificationRenderer uncached;
+    private Map<String, Object> variables;
+    private List<Map<String, Object>> batch;
+
+    @Setup
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.initialize();
+
+        cached = new NotificationRenderer(executor, true, 50, 32);
+        uncached = new NotificationRenderer(executor, false, 50, 32);
+
+        variables = variables(0);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(variables(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public String renderOneCached() {
+        return cached.render(template, variables);
+    }
+
+    @Benchmark
+    public String renderOneUncached() {
+        return uncached.render(template, variables);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<String> renderBatchParallel() {
+        return cached.renderAll(template, batch);
+    }
+
+    private static Map<String, Object> variables(int i) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("employeeName", "Employee " + i);
+        variables.put("leaveType", "VACATION");
+        variables.put("startDate", "2030-06-01");
+        variables.put("endDate", "2030-06-05");
+        variables.put("totalDays", 5);
+        variables.put("approverName", "Alice Approver");
+        variables.put("comments", i % 2 == 0 ? "Enjoy your time off" : null);
+        variables.put("company", "Employee Management System");
+        return variables;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NotificationRenderBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,235 @@
+package com.ems.repository;
+
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations on H2 and checks with EXPLAIN that the hot repository
+ * queries are served by the V2 indexes instead of table scans. The DataSource is wrapped to
+ * capture the SQL Hibernate generates for each repository method, with its bound parameters,
+ * so the plan checked is the plan of the statement the application actually sends.
+ */
+@DataJpaTest
+class QueryIndexUsageTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @BeforeEach
+    void insertRows() {
+        List<Object[]> employees = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            employees.add(new Object[] {i, "First" + i, "Last" + i, "user" + i + "@x.com",
+                "Dept" + (i % 20), "Position" + (i % 10), 40000.0 + i * 10});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (id, first_name, last_name, email, department, position, salary) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)", employees);
+
+        List<Object[]> leaves = new ArrayList<>();
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 1; i <= 2000; i++) {
+            LocalDate from = start.plusDays(i % 365);
+            leaves.add(new Object[] {i, (i % 500) + 1, "VACATION", Date.valueOf(from), Date.valueOf(from.plusDays(3)),
+                4, i % 4 == 0 ? "PENDING" : "APPROVED"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leave_requests (id, employee_id, leave_type, start_date, end_date, " +
+            "total_days, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)", leaves);
+    }
+
+    @Test
+    void employeeListFirstPageUsesFirstNameIndex() {
+        assertThat(explain(() -> employeeRepository.findFirstKeysetPage(null, null, null, null, null,
+            PageRequest.of(0, 20))))
+            .contains("IDX_EMPLOYEES_FIRST_NAME_ID");
+    }
+
+    @Test
+    void employeeListNextPageSeeksFirstNameIndex() {
+        assertThat(explain(() -> employeeRepository.findKeysetPageAfter("First250", 250L, null, null, null, null, null,
+            PageRequest.of(0, 20))))
+            .contains("IDX_EMPLOYEES_FIRST_NAME_ID: FIRST_NAME >= ?1");
+    }
+
+    @Test
+    void departmentFilterUsesDepartmentIndex() {
+        assertThat(explain(() -> employeeRepository.findByDepartment("Dept3", PageRequest.of(0, 20, Sort.by("firstName")))))
+            .contains("IDX_EMPLOYEES_DEPARTMENT_FIRST_NAME: DEPARTMENT = ?1");
+        assertThat(explain(() -> employeeRepository.countByDepartmentsAndSalaryRange(List.of("Dept3"), null, null)))
+            .contains("IDX_EMPLOYEES_DEPARTMENT_FIRST_NAME: DEPARTMENT = ?1");
+    }
+
+    @Test
+    void distinctLookupsReadTheirIndexes() {
+        assertThat(explain(() -> employeeRepository.findDistinctPositions()))
+            .contains("IDX_EMPLOYEES_POSITION");
+        assertThat(explain(() -> employeeRepository.findDistinctDepartments()))
+            .contains("IDX_EMPLOYEES_DEPARTMENT_FIRST_NAME");
+    }
+
+    // The optional bounds ("? IS NULL OR salary >= ?") keep H2 from seeking, so it counts by
+    // scanning the narrower salary index instead of the table
+    @Test
+    void salaryRangeCountUsesSalaryIndex() {
+        assertThat(explain(() -> employeeRepository.countBySalaryRange(44000.0, 44100.0)))
+            .contains("IDX_EMPLOYEES_SALARY");
+    }
+
+    // H2 keeps its own employee_id index for the foreign key and picks either one - both are
+    // keyed on employee_id, which is what matters for this query
+    @Test
+    void overlappingLeavesUseEmployeeIndex() {
+        assertThat(explain(() -> leaveRequestRepository.findOverlappingLeaves(7L,
+            LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10))))
+            .containsPattern("/\\* PUBLIC\\.\\w+: EMPLOYEE_ID = ");
+    }
+
+    @Test
+    void statusQueriesUseStatusIndex() {
+        assertThat(explain(() -> leaveRequestRepository.findDTOsByStatus(LeaveStatus.PENDING, PageRequest.of(0, 20))))
+            .contains("IDX_LEAVE_REQUESTS_STATUS_START: STATUS = ?1");
+    }
+
+    @Test
+    void approvedCalendarRangeUsesStatusIndex() {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 7);
+        assertThat(explain(() -> leaveRequestRepository.findApprovedDTOsInRange(from, to)))
+            .containsPattern("IDX_LEAVE_REQUESTS_STATUS_START: [^*]*START_DATE <=");
+        assertThat(explain(() -> leaveRequestRepository.findApprovedDTOsInRangeForDepartment("Dept3", from, to)))
+            .containsPattern("IDX_LEAVE_REQUESTS_STATUS_START: [^*]*START_DATE <=");
+    }
+
+    // The status index serves the calendar - single-column date indexes would only cost writes
+    @Test
+    void calendarNeedsNoSingleColumnDateIndexes() {
+        assertThat(jdbcTemplate.queryForList("SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES " +
+            "WHERE TABLE_NAME = 'LEAVE_REQUESTS'", String.class))
+            .doesNotContain("IDX_LEAVE_REQUESTS_START_DATE", "IDX_LEAVE_REQUESTS_END_DATE");
+    }
+
+    // EXPLAINs the first statement the repository call sends, with the parameters it bound
+    private String explain(Runnable repositoryCall) {
+        StatementCapture.clear();
+        repositoryCall.run();
+        List<StatementCapture.Captured> statements = StatementCapture.drain();
+        assertThat(statements).isNotEmpty();
+
+        StatementCapture.Captured query = statements.get(0);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query.sql(), String.class, query.parameters().toArray());
+        assertThat(plan).doesNotContain("tableScan");
+        return plan;
+    }
+
+    // Records every statement the repositories prepare together with its bound parameters
+    static class StatementCapture {
+        private static final List<Captured> CAPTURED = new ArrayList<>();
+
+        record Captured(String sql, List<Object> parameters) {
+        }
+
+        static synchronized void clear() {
+            CAPTURED.clear();
+        }
+
+        static synchronized List<Captured> drain() {
+            List<Captured> drained = new ArrayList<>(CAPTURED);
+            CAPTURED.clear();
+            return drained;
+        }
+
+        private static synchronized void record(String sql, TreeMap<Integer, Object> parameters) {
+            CAPTURED.add(new Captured(sql, new ArrayList<>(parameters.values())));
+        }
+
+        static DataSource wrap(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? wrap(connection) : result;
+            });
+        }
+
+        private static Connection wrap(Connection connection) {
+            return proxy(Connection.class, connection, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                    return wrap(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement wrap(PreparedStatement statement, String sql) {
+            TreeMap<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+                String name = method.getName();
+                if (name.equals("setNull")) {
+                    parameters.put((Integer) args[0], null);
+                } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                    record(sql, parameters);
+                }
+                return method.invoke(target, args);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                try {
+                    return handler.invoke(target, method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        private interface Handler<T> {
+            Object invoke(T target, Method method, Object[] args) throws Throwable;
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        static BeanPostProcessor statementCapture() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementCapture.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.ems.service;
+
+import com.ems.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailDeduplicatorTest {
+
+    private EmployeeRepository employeeRepository;
+    private EmailDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        // The database holds taken@x.com, stored with its original casing
+        when(employeeRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> emails = invocation.getArgument(0);
+            return emails.contains("taken@x.com") ? List.of("Taken@X.com") : List.of();
+        });
+        deduplicator = new EmailDeduplicator(employeeRepository);
+    }
+
+    @Test
+    void rejectsDuplicatesWithinAChunk() {
+        assertThat(deduplicator.check(List.of("ann@x.com", "bob@x.com", " ANN@x.com")))
+            .containsExactly(null, null, "Duplicate email within this import:  ANN@x.com");
+    }
+
+    @Test
+    void rejectsDuplicatesOfEarlierChunks() {
+        assertThat(deduplicator.check(List.of("ann@x.com"))).containsExactly((String) null);
+
+        assertThat(deduplicator.check(List.of("bob@x.com", "Ann@X.com")))
+            .containsExactly(null, "Duplicate email within this import: Ann@X.com");
+    }
+
+    @Test
+    void rejectsEmailsAlreadyInTheDatabaseWhateverTheirCase() {
+        assertThat(deduplicator.check(List.of("ann@x.com", "TAKEN@x.com")))
+            .containsExactly(null, "Email already exists: TAKEN@x.com");
+    }
+
+    @Test
+    void repeatOfAnExistingEmailIsReportedAsAnImportDuplicate() {
+        deduplicator.check(List.of("taken@x.com"));
+
+        assertThat(deduplicator.check(List.of("taken@x.com")))
+            .containsExactly("Duplicate email within this import: taken@x.com");
+    }
+
+    @Test
+    void missingEmailsAreLeftToValidation() {
+        assertThat(deduplicator.check(Arrays.asList(null, "ann@x.com", null))).containsExactly(null, null, null);
+    }
+
+    @Test
+    void splitsLargeChunksIntoBoundedInLists() {
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < EmailDeduplicator.MAX_IN_LIST * 2 + 1; i++) {
+            emails.add("user" + i + "@x.com");
+        }
+
+        assertThat(deduplicator.check(emails)).containsOnlyNulls();
+        verify(employeeRepository, times(3)).findExistingEmails(anyCollection());
+    }
+}
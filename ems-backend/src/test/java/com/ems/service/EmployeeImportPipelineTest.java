@@ -0,0 +1,131 @@
+package com.ems.service;
+
+import com.ems.dto.ImportResultDTO;
+import com.ems.repository.EmployeeRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeImportPipelineTest {
+
+    private static final int CHUNK_SIZE = 10;
+
+    private EmployeeBatchWriter batchWriter;
+    private EmployeeRepository employeeRepository;
+    private ThreadPoolTaskExecutor executor;
+    private EmployeeImportPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        batchWriter = mock(EmployeeBatchWriter.class);
+        employeeRepository = mock(EmployeeRepository.class);
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+
+        pipeline = new EmployeeImportPipeline(batchWriter, employeeRepository,
+            Validation.buildDefaultValidatorFactory().getValidator(), mock(ApplicationEventPublisher.class), executor);
+        ReflectionTestUtils.setField(pipeline, "chunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void importsEveryChunkAndRejectsDuplicatesAcrossThem() {
+        when(employeeRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+
+        ImportResultDTO result = pipeline.run(rows(25, 14));
+
+        assertThat(result.getImported()).isEqualTo(25);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement()
+            .satisfies(error -> assertThat(error.getReason()).startsWith("Duplicate email within this import"));
+        verify(batchWriter, times(3)).insertChunk(anyList());
+    }
+
+    @Test
+    void validateStageFailureAbortsThePipelineWithoutHanging() throws InterruptedException {
+        // The third chunk's duplicate lookup fails while the parser still has far more to send;
+        // chunks already validated may or may not be inserted before the insert stage sees the abort
+        AtomicInteger lookups = new AtomicInteger();
+        when(employeeRepository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+            if (lookups.incrementAndGet() == 3) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return List.of();
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+            assertThatThrownBy(() -> pipeline.run(rows(10_000, -1)))
+                .hasMessageMatching("Import failed after (0|10|20) rows were imported: database unavailable"));
+
+        executor.shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verify(batchWriter, atMost(2)).insertChunk(anyList());
+    }
+
+    @Test
+    void parseStageFailureAbortsThePipelineWithoutHanging() {
+        when(employeeRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        ImportRowSource broken = sink -> {
+            throw new IllegalStateException("unreadable file");
+        };
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+            assertThatThrownBy(() -> pipeline.run(broken))
+                .hasMessage("Import failed after 0 rows were imported: unreadable file"));
+        verify(batchWriter, never()).insertChunk(anyList());
+    }
+
+    // 'count' distinct rows, plus one repeating the first email after the row at index 'duplicateAfter' (-1 for none)
+    private static ImportRowSource rows(int count, int duplicateAfter) {
+        return sink -> {
+            long rowNumber = 1;
+            for (int i = 0; i < count; i++) {
+                sink.accept(row(rowNumber++, "user" + i + "@x.com"));
+                if (i == duplicateAfter) {
+                    sink.accept(row(rowNumber++, "USER0@x.com"));
+                }
+            }
+        };
+    }
+
+    private static ImportRow row(long rowNumber, String email) {
+        return new ImportRow(rowNumber, Map.of(
+            "firstname", "Ann",
+            "lastname", "Lee",
+            "email", email,
+            "department", "QA",
+            "position", "Tester",
+            "salary", "50000",
+            "phone", "5551234567"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.ems.service;
+
+import com.ems.dto.DepartmentStatsDTO;
+import com.ems.entity.Employee;
+import com.ems.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The in-memory aggregates against the GROUP BY queries they replace: before the first build
+ * the aggregator answers from those queries, once built it must give the same figures, and
+ * the nightly check rebuilds it when it no longer does.
+ */
+@DataJpaTest
+class EmployeeStatsAggregatorTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository.save(employee("a@x.com", "QA", 40000.0));
+        employeeRepository.save(employee("b@x.com", "QA", 60000.0));
+        employeeRepository.save(employee("c@x.com", "QA", null));
+        employeeRepository.save(employee("d@x.com", "Ops", 0.0));
+        employeeRepository.save(employee("e@x.com", "Dev", 90000.0));
+    }
+
+    @Test
+    void answersFromTheDatabaseUntilBuilt() {
+        EmployeeStatsAggregator aggregator = new EmployeeStatsAggregator(employeeRepository);
+
+        DepartmentStatsDTO global = aggregator.getGlobalStats();
+        assertThat(global.getDepartment()).isNull();
+        assertThat(global.getHeadcount()).isEqualTo(5);
+        assertThat(global.getTotalSalary()).isEqualTo(190000.0);
+        assertThat(global.getMinSalary()).isEqualTo(0.0);
+        assertThat(global.getMaxSalary()).isEqualTo(90000.0);
+        assertThat(global.getAverageSalary()).isEqualTo(47500.0);
+
+        assertThat(aggregator.getDepartmentStats())
+            .extracting(DepartmentStatsDTO::getDepartment, DepartmentStatsDTO::getHeadcount)
+            .containsExactly(tuple("Dev", 1L), tuple("Ops", 1L), tuple("QA", 3L));
+        assertThat(aggregator.getDepartmentCount()).isEqualTo(3);
+    }
+
+    @Test
+    void builtAggregatesMatchTheDatabase() {
+        EmployeeStatsAggregator fallback = new EmployeeStatsAggregator(employeeRepository);
+        EmployeeStatsAggregator built = new EmployeeStatsAggregator(employeeRepository);
+        built.rebuild();
+
+        assertThat(built.getGlobalStats()).isEqualTo(fallback.getGlobalStats());
+        assertThat(built.getDepartmentStats()).isEqualTo(fallback.getDepartmentStats());
+        assertThat(built.getDepartmentCount()).isEqualTo(fallback.getDepartmentCount());
+    }
+
+    @Test
+    void verifyRebuildsAggregatesThatDrifted() {
+        EmployeeStatsAggregator aggregator = new EmployeeStatsAggregator(employeeRepository);
+        aggregator.rebuild();
+        assertThat(aggregator.verify()).isTrue();
+
+        // A write that bypassed the application and published no event
+        jdbcTemplate.update("UPDATE employees SET salary = 70000, department = 'Ops' WHERE email = 'a@x.com'");
+
+        assertThat(aggregator.verify()).isFalse();
+        EmployeeStatsAggregator fallback = new EmployeeStatsAggregator(employeeRepository);
+        assertThat(aggregator.getGlobalStats()).isEqualTo(fallback.getGlobalStats());
+        assertThat(aggregator.getDepartmentStats()).isEqualTo(fallback.getDepartmentStats());
+        assertThat(aggregator.verify()).isTrue();
+    }
+
+    private static Employee employee(String email, String department, Double salary) {
+        return new Employee("First", "Last", email, "+15551234567", "+1", department, "Tester", salary);
+    }
+}
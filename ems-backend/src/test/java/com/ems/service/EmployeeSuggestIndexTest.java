@@ -0,0 +1,61 @@
+package com.ems.service;
+
+import com.ems.dto.EmployeeSuggestionDTO;
+import com.ems.entity.Employee;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class EmployeeSuggestIndexTest {
+
+    private EmployeeSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EmployeeSuggestIndex(mock(EmployeeRepository.class), mock(PlatformTransactionManager.class));
+        index.onEmployeesChanged(EmployeesChangedEvent.saved(List.of(
+            employee(1L, "Aaron", "Annan", "aaron@x.com"),
+            employee(2L, "Bella", "Anders", "bella@x.com"),
+            employee(3L, "Ann", "Zed", "ann@x.com"),
+            employee(4L, "Andrew", "Young", "andrew@x.com"),
+            employee(5L, "Carl", "Ann", "carl@x.com"))));
+    }
+
+    @Test
+    void exactMatchesComeFirstThenFirstNamesThenOtherPrefixes() {
+        assertThat(index.suggest("ann", 10))
+            .extracting(EmployeeSuggestionDTO::getId)
+            .containsExactly(3L, 5L, 1L);
+        assertThat(index.suggest("an", 10))
+            .extracting(EmployeeSuggestionDTO::getId)
+            .containsExactly(4L, 3L, 2L, 5L, 1L);
+    }
+
+    @Test
+    void shortPrefixFillsTheLimitWithFirstNameMatches() {
+        assertThat(index.suggest("a", 2))
+            .extracting(EmployeeSuggestionDTO::getId)
+            .containsExactly(1L, 4L);
+    }
+
+    @Test
+    void resultsAreCopies() {
+        index.suggest("bella", 1).get(0).setFirstName("Mallory");
+
+        assertThat(index.suggest("bella", 1).get(0).getFirstName()).isEqualTo("Bella");
+        assertThat(index.suggest("mallory", 1)).isEmpty();
+    }
+
+    private static Employee employee(Long id, String firstName, String lastName, String email) {
+        Employee employee = new Employee(firstName, lastName, email, "+15551234567", "+1", "QA", "Tester", 50000.0);
+        employee.setId(id);
+        return employee;
+    }
+}
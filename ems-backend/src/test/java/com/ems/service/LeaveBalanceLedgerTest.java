@@ -0,0 +1,180 @@
+package com.ems.service;
+
+import com.ems.entity.Employee;
+import com.ems.entity.LeaveLedgerEntry;
+import com.ems.entity.LeaveLedgerEntry.EntryType;
+import com.ems.entity.LeaveRequest;
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.entity.LeaveRequest.LeaveType;
+import com.ems.repository.EmployeeRepository;
+import com.ems.repository.LeaveLedgerRepository;
+import com.ems.repository.LeaveRequestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Leave balances move only through the guarded UPDATEs and every move is in the ledger. Runs
+ * without a test transaction so each service call commits or rolls back for real.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LeaveService.class, LeaveBalanceBatchWriter.class})
+class LeaveBalanceLedgerTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveLedgerRepository leaveLedgerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @MockBean
+    private LeaveOccupancyIndex leaveOccupancyIndex;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    private Long employeeId;
+
+    @BeforeEach
+    void setUp() {
+        Employee employee = new Employee("Vera", "Vacation", "vera@x.com", "+15551234567", "+1", "QA", "Tester", 50000.0);
+        employee.setVacationDays(10);
+        employeeId = employeeRepository.save(employee).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM leave_ledger");
+        jdbcTemplate.update("DELETE FROM leave_requests");
+        jdbcTemplate.update("DELETE FROM employees");
+    }
+
+    @Test
+    void approvalDeductsAndRecordsLedgerEntry() {
+        Long leaveId = pendingVacation(0, 4);
+
+        leaveService.approveLeave(leaveId, employeeId, "ok");
+
+        assertThat(usedVacation()).isEqualTo(4);
+        assertThat(leaveLedgerRepository.findByEmployeeIdOrderByIdAsc(employeeId))
+            .extracting(LeaveLedgerEntry::getEntryType, LeaveLedgerEntry::getDays)
+            .containsExactly(tuple(EntryType.DEDUCT, 4));
+        assertThat(leaveLedgerRepository.sumDays(employeeId, LeaveType.VACATION)).isEqualTo(usedVacation());
+    }
+
+    @Test
+    void deductionPastAllowanceIsRefusedAndLeavesNothingBehind() {
+        leaveService.approveLeave(pendingVacation(0, 8), employeeId, null);
+        Long tooLong = pendingVacation(20, 3);
+
+        assertThatThrownBy(() -> leaveService.approveLeave(tooLong, employeeId, null))
+            .hasMessage("Insufficient vacation days");
+
+        assertThat(usedVacation()).isEqualTo(8);
+        assertThat(statusOf(tooLong)).isEqualTo(LeaveStatus.PENDING);
+        assertThat(leaveLedgerRepository.sumDays(employeeId, LeaveType.VACATION)).isEqualTo(8);
+    }
+
+    @Test
+    void cancellingRefundsEvenWhenAllowanceWasLoweredBelowUsedDays() {
+        Long leaveId = pendingVacation(0, 6);
+        leaveService.approveLeave(leaveId, employeeId, null);
+        jdbcTemplate.update("UPDATE employees SET vacation_days = 2 WHERE id = ?", employeeId);
+
+        leaveService.cancelLeave(leaveId, employeeId);
+
+        assertThat(usedVacation()).isZero();
+        assertThat(statusOf(leaveId)).isEqualTo(LeaveStatus.CANCELLED);
+        assertThat(leaveLedgerRepository.findByEmployeeIdOrderByIdAsc(employeeId))
+            .extracting(LeaveLedgerEntry::getEntryType, LeaveLedgerEntry::getDays)
+            .containsExactly(tuple(EntryType.DEDUCT, 6),
+                tuple(EntryType.REFUND, -6));
+        assertThat(leaveLedgerRepository.sumDays(employeeId, LeaveType.VACATION)).isZero();
+    }
+
+    @Test
+    void secondDecisionOnDecidedRequestIsRejected() {
+        Long leaveId = pendingVacation(0, 3);
+        leaveService.approveLeave(leaveId, employeeId, null);
+
+        assertThatThrownBy(() -> leaveService.approveLeave(leaveId, employeeId, null))
+            .hasMessage("Only pending leave requests can be approved");
+        assertThatThrownBy(() -> leaveService.rejectLeave(leaveId, employeeId, null))
+            .hasMessage("Only pending leave requests can be rejected");
+
+        assertThat(usedVacation()).isEqualTo(3);
+        assertThat(leaveLedgerRepository.findByEmployeeIdOrderByIdAsc(employeeId)).hasSize(1);
+    }
+
+    @Test
+    void approvalLosingToConcurrentDecisionRollsBackBalanceAndLedger() {
+        Long leaveId = pendingVacation(0, 5);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // The approval reads the request (version 0) and deducts; before it commits, another
+        // transaction rejects the same request
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            leaveService.approveLeave(leaveId, employeeId, null);
+            CompletableFuture.runAsync(() -> leaveService.rejectLeave(leaveId, employeeId, "no")).join();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(statusOf(leaveId)).isEqualTo(LeaveStatus.REJECTED);
+        assertThat(usedVacation()).isZero();
+        assertThat(leaveLedgerRepository.findByEmployeeIdOrderByIdAsc(employeeId)).isEmpty();
+    }
+
+    private Long pendingVacation(int offsetDays, int days) {
+        LeaveRequest leave = new LeaveRequest();
+        leave.setEmployee(employeeRepository.getReferenceById(employeeId));
+        leave.setLeaveType(LeaveType.VACATION);
+        leave.setStartDate(START.plusDays(offsetDays));
+        leave.setEndDate(START.plusDays(offsetDays + days - 1L));
+        leave.setTotalDays(days);
+        leave.setStatus(LeaveStatus.PENDING);
+        return leaveRequestRepository.save(leave).getId();
+    }
+
+    private int usedVacation() {
+        return jdbcTemplate.queryForObject("SELECT used_vacation FROM employees WHERE id = ?", Integer.class, employeeId);
+    }
+
+    private LeaveStatus statusOf(Long leaveId) {
+        return LeaveStatus.valueOf(jdbcTemplate.queryForObject(
+            "SELECT status FROM leave_requests WHERE id = ?", String.class, leaveId));
+    }
+}
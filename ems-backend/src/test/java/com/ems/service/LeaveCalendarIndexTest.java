@@ -0,0 +1,144 @@
+package com.ems.service;
+
+import com.ems.dto.LeaveRequestDTO;
+import com.ems.entity.Employee;
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.event.LeaveStatusChangedEvent;
+import com.ems.repository.LeaveRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaveCalendarIndexTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 3, 10);
+    private static final LocalDate TO = LocalDate.of(2024, 3, 16);
+
+    private LeaveRequestRepository leaveRequestRepository;
+    private LeaveCalendarIndex index;
+
+    @BeforeEach
+    void setUp() {
+        leaveRequestRepository = mock(LeaveRequestRepository.class);
+        when(leaveRequestRepository.findByStatusWithEmployees(LeaveStatus.APPROVED)).thenReturn(List.of());
+        index = new LeaveCalendarIndex(leaveRequestRepository);
+    }
+
+    @Test
+    void returnsNullUntilBuilt() {
+        assertThat(index.findApproved(FROM, TO, null)).isNull();
+
+        index.rebuild();
+
+        assertThat(index.findApproved(FROM, TO, null)).isEmpty();
+    }
+
+    @Test
+    void windowBoundariesAreInclusive() {
+        index.rebuild();
+        approve(1L, 7L, "Dev", FROM.minusDays(3), FROM);            // ends on 'from'
+        approve(2L, 7L, "Dev", TO, TO.plusDays(2));                 // starts on 'to'
+        approve(3L, 8L, "Dev", FROM.minusDays(3), FROM.minusDays(1)); // ends the day before
+        approve(4L, 8L, "Dev", TO.plusDays(1), TO.plusDays(3));     // starts the day after
+        approve(5L, 9L, "Dev", FROM.plusDays(2), FROM.plusDays(2)); // single day inside
+
+        assertThat(index.findApproved(FROM, TO, "Dev"))
+            .extracting(LeaveRequestDTO::getId)
+            .containsExactly(1L, 5L, 2L);
+    }
+
+    @Test
+    void longLeavesStartingWellBeforeTheWindowAreFound() {
+        index.rebuild();
+        approve(1L, 7L, "Dev", FROM.minusDays(60), TO.plusDays(30)); // spans the whole window
+        approve(2L, 8L, "Dev", FROM.minusDays(90), FROM.minusDays(31)); // long, but over before it
+        approve(3L, 9L, "Dev", FROM.minusDays(1), FROM.plusDays(1));
+
+        assertThat(index.findApproved(FROM, TO, "Dev"))
+            .extracting(LeaveRequestDTO::getId)
+            .containsExactly(1L, 3L);
+        assertThat(index.findApproved(TO.plusDays(30), TO.plusDays(30), null))
+            .extracting(LeaveRequestDTO::getId)
+            .containsExactly(1L);
+    }
+
+    @Test
+    void filtersByDepartmentAndSortsAllDepartmentsByStart() {
+        index.rebuild();
+        approve(1L, 7L, "Dev", FROM.plusDays(3), FROM.plusDays(4));
+        approve(2L, 8L, "QA", FROM.plusDays(1), FROM.plusDays(2));
+        approve(3L, 9L, "Dev", FROM, FROM.plusDays(1));
+
+        assertThat(index.findApproved(FROM, TO, "QA"))
+            .extracting(LeaveRequestDTO::getId)
+            .containsExactly(2L);
+        assertThat(index.findApproved(FROM, TO, "Ops")).isEmpty();
+        assertThat(index.findApproved(FROM, TO, null))
+            .extracting(LeaveRequestDTO::getId)
+            .containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void cancelledLeaveIsRemoved() {
+        index.rebuild();
+        approve(1L, 7L, "Dev", FROM, TO);
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(1L, 7L, LeaveStatus.CANCELLED, FROM, TO), "Dev"));
+
+        assertThat(index.findApproved(FROM, TO, null)).isEmpty();
+    }
+
+    @Test
+    void leavesFollowTheirEmployeesDepartmentAndName() {
+        index.rebuild();
+        approve(1L, 7L, "Dev", FROM, FROM.plusDays(1));
+        approve(2L, 7L, "Dev", FROM.plusDays(1), FROM.plusDays(3));
+
+        Employee moved = new Employee("Ann", "Lee", "ann@x.com", "+15551234567", "+1", "QA", "Tester", 50000.0);
+        moved.setId(7L);
+        index.onEmployeesChanged(EmployeesChangedEvent.saved(moved));
+
+        assertThat(index.findApproved(FROM, TO, "Dev")).isEmpty();
+        assertThat(index.findApproved(FROM, TO, "QA"))
+            .extracting(LeaveRequestDTO::getId, LeaveRequestDTO::getEmployeeName)
+            .containsExactly(tuple(1L, "Ann Lee"), tuple(2L, "Ann Lee"));
+
+        index.onEmployeesChanged(EmployeesChangedEvent.deleted(7L));
+
+        assertThat(index.findApproved(FROM, TO, null)).isEmpty();
+    }
+
+    @Test
+    void resultsAreCopies() {
+        index.rebuild();
+        LeaveRequestDTO approved = leave(1L, 7L, LeaveStatus.APPROVED, FROM, TO);
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(approved, "Dev"));
+        approved.setReason("changed by the publisher");
+        index.findApproved(FROM, TO, "Dev").get(0).setReason("changed by a caller");
+
+        assertThat(index.findApproved(FROM, TO, "Dev").get(0).getReason()).isNull();
+    }
+
+    private void approve(Long leaveId, Long employeeId, String department, LocalDate start, LocalDate end) {
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(leaveId, employeeId, LeaveStatus.APPROVED, start, end), department));
+    }
+
+    private static LeaveRequestDTO leave(Long id, Long employeeId, LeaveStatus status, LocalDate start, LocalDate end) {
+        return LeaveRequestDTO.builder()
+            .id(id)
+            .employeeId(employeeId)
+            .status(status)
+            .startDate(start)
+            .endDate(end)
+            .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.ems.service;
+
+import com.ems.dto.DepartmentCoverageDTO;
+import com.ems.dto.DepartmentStatsDTO;
+import com.ems.dto.LeaveRequestDTO;
+import com.ems.entity.Employee;
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.event.EmployeesChangedEvent;
+import com.ems.event.LeaveStatusChangedEvent;
+import com.ems.repository.LeaveRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaveOccupancyIndexTest {
+
+    private final LocalDate today = LocalDate.now();
+
+    private LeaveOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeStatsAggregator statsAggregator = mock(EmployeeStatsAggregator.class);
+        when(statsAggregator.getDepartmentStats()).thenReturn(List.of(
+            DepartmentStatsDTO.builder().department("Dev").headcount(4L).build(),
+            DepartmentStatsDTO.builder().department("QA").headcount(2L).build()));
+        index = new LeaveOccupancyIndex(mock(LeaveRequestRepository.class), statsAggregator);
+    }
+
+    @Test
+    void approvedLeaveCountsEveryDayItCovers() {
+        approve(1L, 7L, "Dev", today.plusDays(1), today.plusDays(3));
+
+        assertThat(index.countOnLeave(today)).isZero();
+        assertThat(index.countOnLeave(today.plusDays(1))).isEqualTo(1);
+        assertThat(index.countOnLeave(today.plusDays(3))).isEqualTo(1);
+        assertThat(index.countOnLeave(today.plusDays(4))).isZero();
+        assertThat(index.countUpcomingLeaves(today, 1)).isEqualTo(1);
+        assertThat(index.countUpcomingLeaves(today.plusDays(1), 7)).isZero();
+        assertThat(index.getDepartmentCoverage(today.plusDays(2)))
+            .extracting(DepartmentCoverageDTO::getDepartment, DepartmentCoverageDTO::getOnLeave,
+                DepartmentCoverageDTO::getCoveragePercent)
+            .containsExactly(tuple("Dev", 1, 75.0), tuple("QA", 0, 100.0));
+    }
+
+    @Test
+    void cancelledLeaveIsRemoved() {
+        approve(1L, 7L, "Dev", today, today.plusDays(2));
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(1L, 7L, LeaveStatus.CANCELLED, today, today.plusDays(2)), "Dev"));
+
+        assertThat(index.countOnLeave(today)).isZero();
+        assertThat(index.countUpcomingLeaves(today.minusDays(1), 7)).isZero();
+        assertThat(index.getDepartmentCoverage(today))
+            .extracting(DepartmentCoverageDTO::getOnLeave)
+            .containsOnly(0);
+    }
+
+    @Test
+    void overlappingLeavesCountTheEmployeeOnce() {
+        approve(1L, 7L, "Dev", today, today.plusDays(4));
+        approve(2L, 7L, "Dev", today.plusDays(2), today.plusDays(6));
+
+        assertThat(index.countOnLeave(today.plusDays(3))).isEqualTo(1);
+        assertThat(onLeaveIn("Dev", today.plusDays(3))).isEqualTo(1);
+
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(1L, 7L, LeaveStatus.CANCELLED, today, today.plusDays(4)), "Dev"));
+
+        assertThat(index.countOnLeave(today.plusDays(1))).isZero();
+        assertThat(index.countOnLeave(today.plusDays(3))).isEqualTo(1);
+        assertThat(onLeaveIn("Dev", today.plusDays(3))).isEqualTo(1);
+    }
+
+    @Test
+    void departmentMoveCarriesOverlappingLeavesAlong() {
+        approve(1L, 7L, "Dev", today, today.plusDays(4));
+        approve(2L, 7L, "Dev", today.plusDays(2), today.plusDays(6));
+        approve(3L, 8L, "Dev", today, today.plusDays(2));
+
+        index.onEmployeesChanged(EmployeesChangedEvent.saved(employee(7L, "QA")));
+
+        for (int i = 0; i <= 6; i++) {
+            LocalDate date = today.plusDays(i);
+            assertThat(onLeaveIn("QA", date)).as("QA on %s", date).isEqualTo(1);
+            assertThat(onLeaveIn("Dev", date)).as("Dev on %s", date).isEqualTo(i <= 2 ? 1 : 0);
+        }
+
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(1L, 7L, LeaveStatus.CANCELLED, today, today.plusDays(4)), "QA"));
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(2L, 7L, LeaveStatus.CANCELLED, today.plusDays(2), today.plusDays(6)), "QA"));
+
+        assertThat(onLeaveIn("QA", today.plusDays(3))).isZero();
+        assertThat(onLeaveIn("Dev", today.plusDays(1))).isEqualTo(1);
+    }
+
+    @Test
+    void approvalUnderANewDepartmentMovesTheEmployeesOtherLeaves() {
+        approve(1L, 7L, "Dev", today, today.plusDays(4));
+        approve(2L, 7L, "QA", today.plusDays(2), today.plusDays(6));
+
+        assertThat(onLeaveIn("Dev", today)).isZero();
+        assertThat(onLeaveIn("QA", today)).isEqualTo(1);
+        assertThat(onLeaveIn("QA", today.plusDays(3))).isEqualTo(1);
+    }
+
+    @Test
+    void pruneDropsPastDaysAndEndedLeaves() {
+        approve(1L, 7L, "Dev", today, today);
+        approve(2L, 8L, "Dev", today, today.plusDays(2));
+
+        index.prunePastDays(today.plusDays(1));
+
+        assertThat(index.countOnLeave(today)).isZero();
+        assertThat(index.countOnLeave(today.plusDays(1))).isEqualTo(1);
+        assertThat(onLeaveIn("Dev", today.plusDays(1))).isEqualTo(1);
+
+        // The pruned leave is gone from the index, so cancelling it later changes nothing
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(1L, 7L, LeaveStatus.CANCELLED, today, today), "Dev"));
+        assertThat(index.countOnLeave(today.plusDays(1))).isEqualTo(1);
+    }
+
+    private void approve(Long leaveId, Long employeeId, String department, LocalDate start, LocalDate end) {
+        index.onLeaveStatusChanged(new LeaveStatusChangedEvent(
+            leave(leaveId, employeeId, LeaveStatus.APPROVED, start, end), department));
+    }
+
+    private int onLeaveIn(String department, LocalDate date) {
+        return index.getDepartmentCoverage(date).stream()
+            .filter(coverage -> coverage.getDepartment().equals(department))
+            .findFirst()
+            .orElseThrow()
+            .getOnLeave();
+    }
+
+    private static LeaveRequestDTO leave(Long id, Long employeeId, LeaveStatus status, LocalDate start, LocalDate end) {
+        return LeaveRequestDTO.builder()
+            .id(id)
+            .employeeId(employeeId)
+            .status(status)
+            .startDate(start)
+            .endDate(end)
+            .build();
+    }
+
+    private static Employee employee(Long id, String department) {
+        Employee employee = new Employee("Ann", "Lee", "ann" + id + "@x.com", "+15551234567", "+1", department,
+            "Engineer", 50000.0);
+        employee.setId(id);
+        return employee;
+    }
+}
@@ -0,0 +1,228 @@
+package com.ems.service;
+
+import com.ems.dto.BulkLeaveDecisionItemDTO;
+import com.ems.dto.BulkLeaveDecisionResultDTO;
+import com.ems.dto.LeaveRequestDTO;
+import com.ems.dto.LeaveStatsDTO;
+import com.ems.entity.Employee;
+import com.ems.entity.LeaveRequest;
+import com.ems.entity.LeaveRequest.LeaveStatus;
+import com.ems.entity.LeaveRequest.LeaveType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Leave listings must cost a fixed number of statements however many rows they return -
+ * employee and approver names come from the projection join, not from lazy loads per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({LeaveService.class, LeaveBalanceBatchWriter.class})
+class LeaveServiceQueryCountTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 6, 1);
+
+    @Autowired
+    private LeaveService leaveService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private LeaveCalendarIndex leaveCalendarIndex;
+
+    @MockBean
+    private LeaveOccupancyIndex leaveOccupancyIndex;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @SpyBean
+    private LeaveBalanceBatchWriter leaveBalanceBatchWriter;
+
+    private Statistics statistics;
+    private Long employeeId;
+
+    @BeforeEach
+    void setUp() {
+        Employee approver = persistEmployee("Alice", "Approver", "alice@x.com");
+        for (int e = 0; e < 6; e++) {
+            Employee employee = persistEmployee("Emp" + e, "Tester", "emp" + e + "@x.com");
+            employeeId = employee.getId();
+            for (int i = 0; i < 4; i++) {
+                LeaveRequest leave = new LeaveRequest();
+                leave.setEmployee(employee);
+                leave.setLeaveType(LeaveType.VACATION);
+                leave.setStartDate(START.plusDays(i * 10L));
+                leave.setEndDate(START.plusDays(i * 10L + 2));
+                leave.setTotalDays(3);
+                leave.setStatus(i % 2 == 0 ? LeaveStatus.APPROVED : LeaveStatus.PENDING);
+                if (leave.getStatus() == LeaveStatus.APPROVED) {
+                    leave.setApprovedBy(approver);
+                    leave.setApprovedDate(LocalDateTime.now());
+                }
+                entityManager.persist(leave);
+            }
+        }
+        // Nothing may be served from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+
+        // No calendar index - getTeamCalendar falls back to the database
+        when(leaveCalendarIndex.findApproved(any(), any(), any())).thenReturn(null);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void leaveRequestPageUsesOneSelectAndOneCount() {
+        Page<LeaveRequestDTO> page = leaveService.getLeaveRequests(
+            PageRequest.of(0, 10, Sort.by("createdAt").descending()), null);
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(24);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getEmployeeName()).endsWith(" Tester"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void leaveRequestsByStatusCarryApproverName() {
+        Page<LeaveRequestDTO> page = leaveService.getLeaveRequests(PageRequest.of(0, 10), LeaveStatus.APPROVED);
+
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.getApprovedBy()).isEqualTo("Alice Approver"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void employeeLeavesUseOneSelect() {
+        List<LeaveRequestDTO> leaves = leaveService.getEmployeeLeaves(employeeId);
+
+        assertThat(leaves).hasSize(4);
+        assertThat(leaves).filteredOn(dto -> dto.getStatus() == LeaveStatus.PENDING)
+            .allSatisfy(dto -> assertThat(dto.getApprovedBy()).isNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void teamCalendarFallbackUsesOneSelect() {
+        List<LeaveRequestDTO> leaves = leaveService.getTeamCalendar(START.plusDays(1), START.plusDays(25), "QA");
+
+        assertThat(leaves).hasSize(12);
+        assertThat(leaves).allSatisfy(dto -> assertThat(dto.getStatus()).isEqualTo(LeaveStatus.APPROVED));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void leaveStatsUseOneAggregateQuery() {
+        // Two approved and one rejected leave this month, one approved leave ending last month
+        Employee employee = entityManager.find(Employee.class, employeeId);
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        persistLeave(employee, monthStart, LeaveStatus.APPROVED);
+        persistLeave(employee, monthStart.plusDays(3), LeaveStatus.APPROVED);
+        persistLeave(employee, monthStart.plusDays(6), LeaveStatus.REJECTED);
+        persistLeave(employee, monthStart.minusDays(3), LeaveStatus.APPROVED);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        LeaveStatsDTO stats = leaveService.getLeaveStats();
+
+        assertThat(stats.getPendingRequests()).isEqualTo(12);
+        assertThat(stats.getTotalLeavesTaken()).isEqualTo(15);
+        assertThat(stats.getApprovedThisMonth()).isEqualTo(2);
+        assertThat(stats.getRejectedThisMonth()).isEqualTo(1);
+        assertThat(stats.getAverageLeaveDuration()).isEqualTo(3.0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkApprovalLoadsOnceWritesInBatchesAndReportsEachRequest() {
+        // The last employee's pending vacations (3 days each) against an allowance of 4, with sick
+        // days already over their allowance - that must not block a vacation-only deduction
+        jdbcTemplate.update("UPDATE employees SET vacation_days = 4, used_sick = 12 WHERE id = ?", employeeId);
+        List<LeaveRequestDTO> all = leaveService.getLeaveRequests(PageRequest.of(0, 50), null).getContent();
+        List<Long> otherPending = all.stream()
+            .filter(dto -> dto.getStatus() == LeaveStatus.PENDING && !dto.getEmployeeId().equals(employeeId))
+            .map(LeaveRequestDTO::getId)
+            .toList();
+        List<Long> lastPending = all.stream()
+            .filter(dto -> dto.getStatus() == LeaveStatus.PENDING && dto.getEmployeeId().equals(employeeId))
+            .map(LeaveRequestDTO::getId)
+            .sorted()
+            .toList();
+        Long approved = all.stream()
+            .filter(dto -> dto.getStatus() == LeaveStatus.APPROVED)
+            .findFirst().orElseThrow().getId();
+        List<Long> ids = new ArrayList<>(lastPending);
+        ids.add(approved);
+        ids.add(-1L);
+        ids.addAll(otherPending);
+        entityManager.clear();
+        statistics.clear();
+
+        BulkLeaveDecisionResultDTO result = leaveService.decideLeavesBulk(ids, LeaveStatus.APPROVED, employeeId, "ok");
+
+        assertThat(result.getSucceeded()).isEqualTo(11);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.getResults()).extracting(BulkLeaveDecisionItemDTO::getError).startsWith(
+            null, "Insufficient vacation days", "Only pending leave requests can be approved", "Leave request not found");
+        assertThat(result.getResults().get(0).getStatus()).isEqualTo(LeaveStatus.APPROVED);
+
+        // Approver, leaves with their employees, and the batched status updates
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        // One balance row per employee and one ledger row per approval, each as a single batch
+        verify(leaveBalanceBatchWriter).deduct(argThat(deductions -> deductions.size() == 6));
+        verify(leaveBalanceBatchWriter).insertLedgerEntries(argThat(entries -> entries.size() == 11));
+
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT used_vacation FROM employees WHERE id = ?", Integer.class, employeeId)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT SUM(days) FROM leave_ledger WHERE employee_id = ?", Integer.class, employeeId)).isEqualTo(3);
+    }
+    
+    private void persistLeave(Employee employee, LocalDate startDate, LeaveStatus status) {
+        LeaveRequest leave = new LeaveRequest();
+        leave.setEmployee(employee);
+        leave.setLeaveType(LeaveType.VACATION);
+        leave.setStartDate(startDate);
+        leave.setEndDate(startDate.plusDays(2));
+        leave.setTotalDays(3);
+        leave.setStatus(status);
+        entityManager.persist(leave);
+    }
+
+    private Employee persistEmployee(String firstName, String lastName, String email) {
+        Employee employee = new Employee(firstName, lastName, email, "+15551234567", "+1", "QA", "Tester", 50000.0);
+        return entityManager.persist(employee);
+    }
+}
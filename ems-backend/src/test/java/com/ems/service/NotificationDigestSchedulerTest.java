@@ -0,0 +1,112 @@
+package com.ems.service;
+
+import com.ems.entity.NotificationDigestItem;
+import com.ems.entity.NotificationOutbox;
+import com.ems.repository.NotificationDigestItemRepository;
+import com.ems.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Digest items become one outbox email per recipient once they hit the threshold or the oldest
+ * one has waited the interval - and not before.
+ */
+@DataJpaTest(properties = {
+    "app.notifications.digest.interval-minutes=60",
+    "app.notifications.digest.threshold=5",
+    "app.notifications.digest.max-items=3"
+})
+@Import({NotificationDigestScheduler.class, NotificationRenderer.class})
+class NotificationDigestSchedulerTest {
+
+    @Autowired
+    private NotificationDigestScheduler digestScheduler;
+
+    @Autowired
+    private NotificationDigestItemRepository digestItemRepository;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @SpyBean
+    private NotificationRenderer notificationRenderer;
+
+    @TestConfiguration
+    static class RenderConfig {
+        @Bean
+        SyncTaskExecutor notificationRenderExecutor() {
+            return new SyncTaskExecutor();
+        }
+    }
+
+    @Test
+    void recentItemsBelowThresholdWait() {
+        for (int i = 0; i < 4; i++) {
+            digestItemRepository.save(new NotificationDigestItem("boss@x.com", "Request " + i));
+        }
+
+        assertThat(digestScheduler.flushDue()).isZero();
+        assertThat(outboxRepository.count()).isZero();
+        assertThat(digestItemRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void thresholdFlushesAllItemsInEmailsOfMaxItems() {
+        for (int i = 0; i < 5; i++) {
+            digestItemRepository.save(new NotificationDigestItem("boss@x.com", "Request " + i));
+        }
+
+        assertThat(digestScheduler.flushDue()).isEqualTo(2);
+
+        List<NotificationOutbox> emails = outboxRepository.findAll();
+        assertThat(emails).extracting(NotificationOutbox::getSubject)
+            .containsExactly("3 leave request(s) awaiting approval", "2 leave request(s) awaiting approval");
+        assertThat(emails.get(0).getBody()).contains("Request 0", "Request 2").doesNotContain("Request 3");
+        assertThat(digestItemRepository.count()).isZero();
+    }
+
+    @Test
+    void intervalFlushesOnlyRecipientsWithOldItems() {
+        NotificationDigestItem old = new NotificationDigestItem("boss@x.com", "Old request");
+        old.setCreatedAt(LocalDateTime.now().minusMinutes(61));
+        digestItemRepository.save(old);
+        digestItemRepository.save(new NotificationDigestItem("other@x.com", "New request"));
+
+        assertThat(digestScheduler.flushDue()).isEqualTo(1);
+
+        assertThat(outboxRepository.findAll()).extracting(NotificationOutbox::getRecipient).containsExactly("boss@x.com");
+        assertThat(digestItemRepository.findAll()).extracting(NotificationDigestItem::getRecipient)
+            .containsExactly("other@x.com");
+    }
+
+    @Test
+    void renderFailureQueuesAPlainTextDigest() {
+        doThrow(new IllegalStateException("template missing"))
+            .when(notificationRenderer).render(eq(NotificationRenderer.LEAVE_REQUEST_DIGEST), any());
+        digestItemRepository.save(new NotificationDigestItem("boss@x.com", "Request 0"));
+        digestItemRepository.save(new NotificationDigestItem("boss@x.com", "Request 1"));
+
+        assertThat(digestScheduler.flush("boss@x.com")).isEqualTo(1);
+
+        assertThat(outboxRepository.findAll()).singleElement().satisfies(email -> {
+            assertThat(email.getSubject()).isEqualTo("2 leave request(s) awaiting approval");
+            assertThat(email.getBody()).isEqualTo("Request 0\nRequest 1");
+            assertThat(email.isHtml()).isFalse();
+        });
+        assertThat(digestItemRepository.count()).isZero();
+    }
+}
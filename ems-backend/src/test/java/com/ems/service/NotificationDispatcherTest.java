@@ -0,0 +1,103 @@
+package com.ems.service;
+
+import com.ems.entity.NotificationOutbox;
+import com.ems.entity.NotificationOutbox.OutboxStatus;
+import com.ems.repository.NotificationOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox delivery against an in-process SMTP server (GreenMail): due messages go out in one
+ * batch, failed sends are pushed back with backoff and eventually marked FAILED.
+ */
+@DataJpaTest(properties = {
+    "app.notifications.dispatch.batch-size=10",
+    "app.notifications.dispatch.max-attempts=2",
+    "app.notifications.dispatch.backoff-initial-ms=60000"
+})
+@Import(NotificationDispatcher.class)
+class NotificationDispatcherTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @TestConfiguration
+    static class MailConfig {
+        @Bean
+        JavaMailSender javaMailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+    }
+
+    @Test
+    void dueMessagesAreSentInOneBatchAndMarkedSent() {
+        for (int i = 0; i < 3; i++) {
+            outboxRepository.save(new NotificationOutbox("user" + i + "@x.com", "Subject " + i, "Body " + i, false));
+        }
+        NotificationOutbox notDue = new NotificationOutbox("later@x.com", "Later", "Later", false);
+        notDue.setNextAttemptAt(LocalDateTime.now().plusHours(1));
+        outboxRepository.save(notDue);
+
+        int due = dispatcher.dispatchBatch();
+
+        assertThat(due).isEqualTo(3);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(GreenMailUtil.getBody(received[0])).contains("Body 0");
+        assertThat(outboxRepository.countByStatus(OutboxStatus.SENT)).isEqualTo(3);
+        assertThat(outboxRepository.findById(notDue.getId()).orElseThrow().getStatus()).isEqualTo(OutboxStatus.PENDING);
+    }
+
+    @Test
+    void failedSendsBackOffAndGiveUpAfterMaxAttempts() {
+        NotificationOutbox notification = outboxRepository.save(
+            new NotificationOutbox("user@x.com", "Subject", "Body", false));
+        greenMail.stop();
+
+        dispatcher.dispatchBatch();
+
+        NotificationOutbox retrying = outboxRepository.findById(notification.getId()).orElseThrow();
+        assertThat(retrying.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(retrying.getAttempts()).isEqualTo(1);
+        assertThat(retrying.getLastError()).isNotBlank();
+        assertThat(retrying.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(50));
+
+        // Not due again until the backoff has passed
+        assertThat(dispatcher.dispatchBatch()).isZero();
+
+        retrying.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(retrying);
+        dispatcher.dispatchBatch();
+
+        NotificationOutbox failed = outboxRepository.findById(notification.getId()).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(2);
+        assertThat(outboxRepository.findDue(LocalDateTime.now(), PageRequest.of(0, 10)))
+            .isEmpty();
+    }
+}
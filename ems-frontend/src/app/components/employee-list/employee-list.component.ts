@@ -1,9 +1,15 @@
-import { Component, OnInit, ViewChild } from '@angular/core';
+import { Component, OnDestroy, OnInit, ViewChild } from '@angular/core';
 import { MatTableDataSource } from '@angular/material/table';
 import { MatPaginator, PageEvent } from '@angular/material/paginator';
 import { MatSort } from '@angular/material/sort';
 import { MatDialog } from '@angular/material/dialog';
 import { MatSnackBar } from '@angular/material/snack-bar';
+import { Subject, Subscription, of } from 'rxjs';
+import {
+  debounceTime,
+  distinctUntilChanged,
+  switchMap,
+} from 'rxjs/operators';
 import { EmployeeService } from '../../services/employee.service';
 import { Employee, EmployeeSearchCriteria } from '../../models/employee.model';
 import { EmployeeFormComponent } from '../employee-form/employee-form.component';
@@ -15,7 +21,7 @@ import { ExportDialogComponent } from '../shared/export-dialog/export-dialog.com
   templateUrl: './employee-list.component.html',
   styleUrls: ['./employee-list.component.css'],
 })
-export class EmployeeListComponent implements OnInit {
+export class EmployeeListComponent implements OnInit, OnDestroy {
   displayedColumns: string[] = [
     'id',
     'firstName',
@@ -36,6 +42,11 @@ export class EmployeeListComponent implements OnInit {
   positions: string[] = [];
   showAdvancedSearch = false;
 
+  // Typeahead suggestions for the search box
+  suggestions: any[] = [];
+  private searchInput$ = new Subject<string>();
+  private suggestSubscription?: Subscription;
+
   // Pagination
   totalElements = 0;
   pageSize = 10;
@@ -57,6 +68,38 @@ export class EmployeeListComponent implements OnInit {
   ngOnInit(): void {
     this.loadEmployees();
     this.loadFilters();
+
+    this.suggestSubscription = this.searchInput$
+      .pipe(
+        debounceTime(150),
+        distinctUntilChanged(),
+        switchMap((term) =>
+          term.trim().length >= 2
+            ? this.employeeService.suggestEmployees(term.trim())
+            : of([])
+        )
+      )
+      .subscribe((suggestions) => (this.suggestions = suggestions));
+  }
+
+  ngOnDestroy(): void {
+    this.suggestSubscription?.unsubscribe();
+  }
+
+  onSearchInput(term: any): void {
+    if (typeof term !== 'string') return;
+    this.searchInput$.next(term);
+  }
+
+  // The search box keeps showing plain text, also when an option object is selected
+  displaySuggestion(value: any): string {
+    return value && typeof value === 'object' ? value.email : value || '';
+  }
+
+  onSuggestionSelected(suggestion: any): void {
+    this.searchCriteria.searchTerm = suggestion.email;
+    this.suggestions = [];
+    this.onSearch();
   }
 
   ngAfterViewInit(): void {
@@ -1,6 +1,8 @@
-import { Component, Inject } from '@angular/core';
+import { Component, Inject, OnDestroy } from '@angular/core';
 import { MatDialogRef, MAT_DIALOG_DATA } from '@angular/material/dialog';
 import { MatSnackBar } from '@angular/material/snack-bar';
+import { Subscription, timer } from 'rxjs';
+import { switchMap } from 'rxjs/operators';
 import { EmployeeService } from '../../../services/employee.service';
 
 @Component({
@@ -8,12 +10,18 @@ import { EmployeeService } from '../../../services/employee.service';
   templateUrl: './import-dialog.component.html',
   styleUrls: ['./import-dialog.component.css'],
 })
-export class ImportDialogComponent {
+export class ImportDialogComponent implements OnDestroy {
   selectedFile: File | null = null;
   previewData: any[] = [];
   loading = false;
   validRows = 0;
   invalidRows = 0;
+  // Excel files are not previewed in the browser - rows are validated by the server
+  serverValidated = false;
+
+  // Background import job being polled
+  importJob: any = null;
+  private pollSubscription?: Subscription;
 
   constructor(
     public dialogRef: MatDialogRef<ImportDialogComponent>,
@@ -31,6 +39,7 @@ export class ImportDialogComponent {
   }
 
   previewFile(file: File): void {
+    this.serverValidated = false;
     if (file.type === 'text/csv' || file.name.endsWith('.csv')) {
       this.parseCSV(file);
     } else if (
@@ -38,15 +47,9 @@ export class ImportDialogComponent {
         'application/vnd.openxmlformats-officedocument.spreadsheetml.sheet' ||
       file.name.endsWith('.xlsx')
     ) {
-      this.snackBar.open(
-        'Excel import coming soon! Using CSV for now.',
-        'Close',
-        {
-          duration: 3000,
-        }
-      );
-      // For now, we'll simulate Excel data
-      this.simulatePreviewData();
+      this.previewData = [];
+      this.serverValidated = true;
+      this.calculateValidation();
     } else {
       this.snackBar.open(
         'Unsupported file format. Please use CSV or Excel.',
@@ -99,43 +102,6 @@ export class ImportDialogComponent {
     reader.readAsText(file);
   }
 
-  simulatePreviewData(): void {
-    this.previewData = [
-      {
-        firstname: 'John',
-        lastname: 'Doe',
-        email: 'john@example.com',
-        department: 'IT',
-        position: 'Software Engineer',
-        salary: '75000',
-        errors: null,
-        rowNumber: 2,
-      },
-      {
-        firstname: 'Jane',
-        lastname: 'Smith',
-        email: 'jane@example.com',
-        department: 'HR',
-        position: 'HR Manager',
-        salary: '65000',
-        errors: null,
-        rowNumber: 3,
-      },
-      {
-        firstname: 'Bob',
-        lastname: 'Johnson',
-        email: 'invalid-email',
-        department: 'Finance',
-        position: 'Financial Analyst',
-        salary: '60000',
-        errors: 'Valid email required',
-        rowNumber: 4,
-      },
-    ];
-
-    this.calculateValidation();
-  }
-
   calculateValidation(): void {
     this.validRows = this.previewData.filter((row) => !row.errors).length;
     this.invalidRows = this.previewData.filter((row) => row.errors).length;
@@ -166,7 +132,10 @@ Mike,Johnson,mike@example.com,Finance,Financial Analyst,60000`;
   }
 
   confirmImport(): void {
-    if (this.validRows === 0) {
+    if (!this.selectedFile) {
+      return;
+    }
+    if (this.validRows === 0 && !this.serverValidated) {
       this.snackBar.open('No valid rows to import', 'Close', {
         duration: 3000,
       });
@@ -175,22 +144,103 @@ Mike,Johnson,mike@example.com,Finance,Financial Analyst,60000`;
 
     this.loading = true;
 
-    // Simulate API call
-    setTimeout(() => {
-      this.snackBar.open(
-        `Successfully imported ${this.validRows} employees`,
-        'Close',
-        {
+    this.employeeService.startImportJob(this.selectedFile).subscribe({
+      next: (job) => {
+        this.importJob = job;
+        this.pollImportJob(job.id);
+      },
+      error: (error) => {
+        this.loading = false;
+        this.snackBar.open(
+          error.error?.error || 'Failed to start import',
+          'Close',
+          { duration: 5000 }
+        );
+      },
+    });
+  }
+
+  // Poll the job once a second until it finishes
+  pollImportJob(jobId: string): void {
+    this.pollSubscription?.unsubscribe();
+    this.pollSubscription = timer(1000, 1000)
+      .pipe(switchMap(() => this.employeeService.getImportJob(jobId)))
+      .subscribe({
+        next: (job) => {
+          this.importJob = job;
+          if (job.status === 'COMPLETED' || job.status === 'FAILED') {
+            this.pollSubscription?.unsubscribe();
+            this.onImportFinished(job);
+          }
+        },
+        error: (error) => {
+          console.error('❌ Import job polling error:', error);
+          this.pollSubscription?.unsubscribe();
+          this.loading = false;
+        },
+      });
+  }
+
+  onImportFinished(job: any): void {
+    this.loading = false;
+
+    if (job.status === 'FAILED') {
+      this.snackBar.open(`Import failed: ${job.error}`, 'Close', {
+        duration: 5000,
+      });
+      return;
+    }
+
+    this.snackBar.open(
+      `Successfully imported ${job.rowsInserted} employees` +
+        (job.rowsRejected > 0 ? `, ${job.rowsRejected} rejected` : ''),
+      'Close',
+      {
+        duration: 3000,
+      }
+    );
+
+    // Keep the dialog open when there is an error report to download
+    if (!job.errorReportUrl) {
+      this.dialogRef.close({ success: true, imported: job.rowsInserted });
+    }
+  }
+
+  downloadErrorReport(): void {
+    if (!this.importJob) return;
+
+    this.employeeService.downloadImportErrors(this.importJob.id).subscribe({
+      next: (blob) => {
+        const url = window.URL.createObjectURL(blob);
+        const a = document.createElement('a');
+        a.href = url;
+        a.download = 'import_errors.csv';
+        a.click();
+        window.URL.revokeObjectURL(url);
+      },
+      error: () => {
+        this.snackBar.open('Failed to download error report', 'Close', {
           duration: 3000,
-        }
-      );
-      this.loading = false;
-      this.dialogRef.close({ success: true, imported: this.validRows });
-    }, 1500);
+        });
+      },
+    });
+  }
+
+  closeAfterImport(): void {
+    this.dialogRef.close({
+      success: true,
+      imported: this.importJob?.rowsInserted || 0,
+    });
+  }
+
+  ngOnDestroy(): void {
+    this.pollSubscription?.unsubscribe();
   }
 
   clearFile(): void {
     this.selectedFile = null;
+    this.importJob = null;
+    this.serverValidated = false;
     this.previewData = [];
     this.validRows = 0;
     this.invalidRows = 0;
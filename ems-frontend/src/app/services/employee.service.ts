@@ -112,6 +112,18 @@ export class EmployeeService {
 
   // ========== PROTECTED ENDPOINTS (REQUIRE AUTH) ==========
 
+  // Lightweight autocomplete - served from memory on the backend
+  suggestEmployees(query: string, limit: number = 8): Observable<any[]> {
+    const url = `${this.baseUrl}/employees/suggest`;
+    const params = new HttpParams()
+      .set('q', query)
+      .set('limit', limit.toString());
+
+    return this.http
+      .get<any[]>(url, { headers: this.getHeaders(), params })
+      .pipe(catchError(() => of([])));
+  }
+
   searchEmployees(
     page: number = 0,
     size: number = 10,
@@ -269,6 +281,36 @@ export class EmployeeService {
       );
   }
 
+  // Large exports run as a background job: start it, poll its status, then download
+  startExportJob(format: 'csv' | 'excel'): Observable<any> {
+    const url = `${this.baseUrl}/export/jobs`;
+    const params = new HttpParams().set('format', format);
+    console.log('📦 Starting export job:', format);
+
+    return this.http
+      .post(url, null, { params, headers: this.getHeaders() })
+      .pipe(
+        tap((job) => console.log('✅ Export job queued:', job)),
+        catchError((error) => {
+          console.error('❌ Export job error:', error);
+          return throwError(() => error);
+        })
+      );
+  }
+
+  getExportJob(jobId: string): Observable<any> {
+    const url = `${this.baseUrl}/export/jobs/${jobId}`;
+    return this.http.get(url, { headers: this.getHeaders() });
+  }
+
+  downloadExportJob(jobId: string): Observable<Blob> {
+    const url = `${this.baseUrl}/export/jobs/${jobId}/download`;
+    return this.http.get(url, {
+      responseType: 'blob',
+      headers: this.getHeaders(),
+    });
+  }
+
   importEmployeesFromCSV(file: File): Observable<any> {
     const formData = new FormData();
     formData.append('file', file);
@@ -302,6 +344,42 @@ export class EmployeeService {
       );
   }
 
+  // Large imports run as a background job: upload once, then poll for progress
+  startImportJob(file: File): Observable<any> {
+    const formData = new FormData();
+    formData.append('file', file);
+
+    const url = `${this.baseUrl}/employees/import/jobs`;
+    console.log('📦 Starting import job:', file.name);
+
+    // For FormData, let browser set Content-Type automatically
+    const token = this.authService.getToken();
+    const headers = new HttpHeaders(
+      token ? { Authorization: `Bearer ${token}` } : {}
+    );
+
+    return this.http.post(url, formData, { headers }).pipe(
+      tap((job) => console.log('✅ Import job queued:', job)),
+      catchError((error) => {
+        console.error('❌ Import job error:', error);
+        return throwError(() => error);
+      })
+    );
+  }
+
+  getImportJob(jobId: string): Observable<any> {
+    const url = `${this.baseUrl}/employees/import/jobs/${jobId}`;
+    return this.http.get(url, { headers: this.getHeaders() });
+  }
+
+  downloadImportErrors(jobId: string): Observable<Blob> {
+    const url = `${this.baseUrl}/employees/import/jobs/${jobId}/errors`;
+    return this.http.get(url, {
+      responseType: 'blob',
+      headers: this.getHeaders(),
+    });
+  }
+
   importEmployees(employees: Employee[]): Observable<any> {
     const url = `${this.baseUrl}/employees/bulk`;
     console.log('📤 Bulk importing employees:', employees.length);